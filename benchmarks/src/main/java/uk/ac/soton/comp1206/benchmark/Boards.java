@@ -0,0 +1,61 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.util.Random;
+
+/**
+ * Helpers for setting up boards to benchmark against. Everything is seeded so every run measures the same boards.
+ */
+final class Boards {
+
+    /**
+     * The seed used for every random board and move
+     */
+    static final long SEED = 1206;
+
+    /**
+     * Not to be created
+     */
+    private Boards() {
+    }
+
+    /**
+     * Create a square grid with roughly the given fraction of its blocks filled
+     * @param size number of rows and columns
+     * @param density the fraction of blocks to fill, from 0 to 1
+     * @param random where to get random numbers from
+     * @return the grid
+     */
+    static Grid filledGrid(int size, double density, Random random) {
+        var grid = new Grid(size, size);
+        fill(grid, density, random);
+        return grid;
+    }
+
+    /**
+     * Fill roughly the given fraction of the blocks of a grid with random piece values
+     * @param grid the grid to fill
+     * @param density the fraction of blocks to fill, from 0 to 1
+     * @param random where to get random numbers from
+     */
+    static void fill(Grid grid, double density, Random random) {
+        for(int y = 0; y < grid.getRows(); y++) {
+            for(int x = 0; x < grid.getCols(); x++) {
+                if(random.nextDouble() < density) {
+                    grid.set(x, y, 1 + random.nextInt(GamePiece.PIECES));
+                }
+            }
+        }
+    }
+
+    /**
+     * Pick a random piece in a random rotation
+     * @param random where to get random numbers from
+     * @return the piece
+     */
+    static GamePiece randomPiece(Random random) {
+        return GamePiece.createPiece(random.nextInt(GamePiece.PIECES), random.nextInt(GamePiece.ROTATIONS));
+    }
+}
@@ -0,0 +1,124 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.GameEngine;
+import uk.ac.soton.comp1206.game.Placements;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end benchmarks of the headless game engine, playing whole games with no display. A move is placing a piece,
+ * including clearing lines and scoring, or losing a life when the piece cannot be placed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class EngineBenchmark {
+
+    /**
+     * The number of moves played by each invocation of {@link #randomMoves()}
+     */
+    private static final int MOVES = 1000;
+
+    /**
+     * The number of random positions tried before giving up on a piece
+     */
+    private static final int TRIES = 40;
+
+    /**
+     * Number of rows and columns of the board
+     */
+    @Param({"5", "10", "30"})
+    public int size;
+
+    /**
+     * Where moves are picked from
+     */
+    private Random random;
+
+    /**
+     * The game being played, replaced when it is over
+     */
+    private GameEngine engine;
+
+    /**
+     * Reused to find legal moves
+     */
+    private Placements placements;
+
+    /**
+     * Start the first game
+     */
+    @Setup
+    public void setup() {
+        random = new Random(Boards.SEED);
+        placements = new Placements(size, size);
+        newGame();
+    }
+
+    /**
+     * Start a new game
+     */
+    private void newGame() {
+        engine = new GameEngine(size, size);
+        engine.start();
+    }
+
+    /**
+     * Play moves the way a player clicking at random would: rotate and click random blocks until the piece fits, and
+     * lose a life if it does not fit after a number of tries
+     * @return the engine
+     */
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public GameEngine randomMoves() {
+        for(int move = 0; move < MOVES; move++) {
+            if(engine.isOver()) newGame();
+            boolean placed = false;
+            for(int tries = 0; tries < TRIES && !placed; tries++) {
+                engine.rotate(random.nextInt(4));
+                placed = engine.place(random.nextInt(size), random.nextInt(size));
+            }
+            if(!placed) engine.timeout();
+        }
+        return engine;
+    }
+
+    /**
+     * Play a single move at a random legal position of the current piece, or lose a life if there is none
+     * @return the engine
+     */
+    @Benchmark
+    public GameEngine legalMove() {
+        if(engine.isOver()) newGame();
+        var piece = engine.getCurrentPiece();
+        engine.getGrid().legalPlacements(piece, placements);
+        var positions = placements.get(piece.getRotation());
+        int count = positions.size();
+        if(count == 0) {
+            engine.timeout();
+            return engine;
+        }
+        int index = positions.nextIndex(0);
+        for(int skip = random.nextInt(count); skip > 0; skip--) {
+            index = positions.nextIndex(index + 1);
+        }
+        engine.place(positions.getX(index), positions.getY(index));
+        return engine;
+    }
+}
@@ -0,0 +1,180 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+import uk.ac.soton.comp1206.game.Placements;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the Grid: checking and playing single pieces, and finding every legal placement of a piece, on square
+ * boards of several sizes and fill densities. Sizes over 64 take the wide board paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class GridBenchmark {
+
+    /**
+     * The number of precomputed positions to cycle through, a power of two
+     */
+    private static final int PROBES = 1024;
+
+    /**
+     * Number of rows and columns of the board
+     */
+    @Param({"5", "10", "30", "100"})
+    public int size;
+
+    /**
+     * Fraction of the board filled before measuring
+     */
+    @Param({"0.0", "0.3", "0.6"})
+    public double density;
+
+    /**
+     * The board
+     */
+    private Grid grid;
+
+    /**
+     * Reused by the legal placements benchmark
+     */
+    private Placements placements;
+
+    /**
+     * Random pieces and positions to check, some legal and some not
+     */
+    private GamePiece[] probePieces;
+    private int[] probeX;
+    private int[] probeY;
+
+    /**
+     * Random pieces and positions which are legal on the board
+     */
+    private GamePiece[] legalPieces;
+    private int[] legalX;
+    private int[] legalY;
+
+    /**
+     * The next probe to use
+     */
+    private int next;
+
+    /**
+     * Fill the board and work out the positions to use
+     */
+    @Setup
+    public void setup() {
+        var random = new Random(Boards.SEED);
+        grid = Boards.filledGrid(size, density, random);
+        placements = new Placements(size, size);
+
+        probePieces = new GamePiece[PROBES];
+        probeX = new int[PROBES];
+        probeY = new int[PROBES];
+        for(int i = 0; i < PROBES; i++) {
+            probePieces[i] = Boards.randomPiece(random);
+            probeX[i] = random.nextInt(size);
+            probeY[i] = random.nextInt(size);
+        }
+
+        var legal = new ArrayList<int[]>();
+        for(int piece = 0; piece < GamePiece.PIECES; piece++) {
+            grid.legalPlacements(GamePiece.createPiece(piece), placements);
+            for(int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+                var positions = placements.get(rotation);
+                for(int index = positions.nextIndex(0); index >= 0; index = positions.nextIndex(index + 1)) {
+                    legal.add(new int[] {piece, rotation, positions.getX(index), positions.getY(index)});
+                }
+            }
+        }
+        if(legal.isEmpty()) {
+            throw new IllegalStateException("No legal placement on the board");
+        }
+        legalPieces = new GamePiece[PROBES];
+        legalX = new int[PROBES];
+        legalY = new int[PROBES];
+        for(int i = 0; i < PROBES; i++) {
+            var placement = legal.get(random.nextInt(legal.size()));
+            legalPieces[i] = GamePiece.createPiece(placement[0], placement[1]);
+            legalX[i] = placement[2];
+            legalY[i] = placement[3];
+        }
+    }
+
+    /**
+     * Check a single position
+     * @return whether the piece can be played
+     */
+    @Benchmark
+    public boolean canPlayPiece() {
+        int i = next++ & (PROBES - 1);
+        return grid.canPlayPiece(probePieces[i], probeX[i], probeY[i]);
+    }
+
+    /**
+     * Play a piece at a legal position, then empty its blocks again so the board stays the same between calls
+     * @return the board
+     */
+    @Benchmark
+    public Grid playPiece() {
+        int i = next++ & (PROBES - 1);
+        var piece = legalPieces[i];
+        grid.playPiece(piece, legalX[i], legalY[i]);
+        int mask = piece.getMask();
+        while(mask != 0) {
+            int block = Integer.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            grid.set(legalX[i] - 1 + block % 3, legalY[i] - 1 + block / 3, 0);
+        }
+        return grid;
+    }
+
+    /**
+     * Find every legal position of a piece in every rotation
+     * @return the placements
+     */
+    @Benchmark
+    public Placements legalPlacements() {
+        int i = next++ & (PROBES - 1);
+        grid.legalPlacements(probePieces[i], placements);
+        return placements;
+    }
+
+    /**
+     * Find every legal position of a piece in every rotation by calling canPlayPiece for each, the baseline for
+     * {@link #legalPlacements()}
+     * @return the number of legal positions
+     */
+    @Benchmark
+    public int canPlayPieceLoop() {
+        int i = next++ & (PROBES - 1);
+        int legal = 0;
+        for(int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+            var piece = probePieces[i].rotate(rotation);
+            for(int y = 0; y < size; y++) {
+                for(int x = 0; x < size; x++) {
+                    if(grid.canPlayPiece(piece, x, y)) legal++;
+                }
+            }
+        }
+        return legal;
+    }
+}
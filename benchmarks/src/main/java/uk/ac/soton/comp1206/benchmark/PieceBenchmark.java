@@ -0,0 +1,97 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of creating and rotating pieces
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class PieceBenchmark {
+
+    /**
+     * The number of precomputed inputs to cycle through, a power of two
+     */
+    private static final int INPUTS = 1024;
+
+    /**
+     * Random piece numbers
+     */
+    private int[] pieceNumbers;
+
+    /**
+     * Random pieces to rotate
+     */
+    private GamePiece[] pieces;
+
+    /**
+     * Random numbers of rotations, from 1 to 3
+     */
+    private int[] rotations;
+
+    /**
+     * The next input to use
+     */
+    private int next;
+
+    /**
+     * Pick the inputs
+     */
+    @Setup
+    public void setup() {
+        var random = new Random(Boards.SEED);
+        pieceNumbers = new int[INPUTS];
+        pieces = new GamePiece[INPUTS];
+        rotations = new int[INPUTS];
+        for(int i = 0; i < INPUTS; i++) {
+            pieceNumbers[i] = random.nextInt(GamePiece.PIECES);
+            pieces[i] = Boards.randomPiece(random);
+            rotations[i] = 1 + random.nextInt(3);
+        }
+    }
+
+    /**
+     * Create a piece from its number
+     * @return the piece
+     */
+    @Benchmark
+    public GamePiece createPiece() {
+        return GamePiece.createPiece(pieceNumbers[next++ & (INPUTS - 1)]);
+    }
+
+    /**
+     * Rotate a piece once
+     * @return the rotated piece
+     */
+    @Benchmark
+    public GamePiece rotate() {
+        return pieces[next++ & (INPUTS - 1)].rotate();
+    }
+
+    /**
+     * Rotate a piece several times
+     * @return the rotated piece
+     */
+    @Benchmark
+    public GamePiece rotateMany() {
+        int i = next++ & (INPUTS - 1);
+        return pieces[i].rotate(rotations[i]);
+    }
+}
@@ -0,0 +1,126 @@
+package uk.ac.soton.comp1206.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.ac.soton.comp1206.network.Message;
+import uk.ac.soton.comp1206.network.MessageCodec;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of decoding the messages sent by the server, replaying a recorded session. Compares the codec with the
+ * splitting each listener used to do for itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+public class ProtocolBenchmark {
+
+    /**
+     * The recorded session
+     */
+    private static final String TRAFFIC = "/traffic.txt";
+
+    /**
+     * The messages of the session, in the order they were received
+     */
+    private String[] messages;
+
+    /**
+     * The next message to use
+     */
+    private int next;
+
+    /**
+     * Load the recorded session
+     * @throws IOException if it cannot be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        var loaded = new ArrayList<String>();
+        try (var reader = new BufferedReader(new InputStreamReader(
+                ProtocolBenchmark.class.getResourceAsStream(TRAFFIC), StandardCharsets.UTF_8))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                if(line.isEmpty() || line.startsWith("#")) continue;
+                loaded.add(line.replace("\\n", "\n"));
+            }
+        }
+        messages = loaded.toArray(new String[0]);
+    }
+
+    /**
+     * Get the next message of the session, starting again at the end
+     * @return the message
+     */
+    private String nextMessage() {
+        if(next == messages.length) next = 0;
+        return messages[next++];
+    }
+
+    /**
+     * Decode a message with the codec
+     * @return the message
+     */
+    @Benchmark
+    public Message decode() {
+        return MessageCodec.decode(nextMessage());
+    }
+
+    /**
+     * Parse a message by splitting it, as the listeners used to
+     * @return what was parsed
+     */
+    @Benchmark
+    public Object split() {
+        return splitMessage(nextMessage());
+    }
+
+    /**
+     * Parse a message the way the game, lobby and scores listeners used to
+     * @param message the message
+     * @return what was parsed
+     */
+    private static Object splitMessage(String message) {
+        var parts = message.split(" ");
+        switch (parts[0]) {
+            case "PIECE" -> {
+                return Integer.parseInt(parts[1].trim());
+            }
+            case "SCORES", "HISCORES" -> {
+                var scores = new ArrayList<Object[]>();
+                for(var line : parts[1].split("\n")) {
+                    var info = line.split(":");
+                    scores.add(new Object[] { info[0], Integer.parseInt(info[1]), info.length > 2 ? info[2] : null });
+                }
+                return scores;
+            }
+            case "CHANNELS", "USERS" -> {
+                return parts.length == 1 ? List.of() : List.of(parts[1].split("\n"));
+            }
+            case "MSG" -> {
+                return message.substring(4);
+            }
+            default -> {
+                return parts;
+            }
+        }
+    }
+}
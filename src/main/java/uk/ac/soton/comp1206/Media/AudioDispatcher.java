@@ -0,0 +1,152 @@
+package uk.ac.soton.comp1206.Media;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The AudioDispatcher runs audio commands on a worker thread of its own, so the threads running the game never wait
+ * for the media stack.
+ *
+ * Commands are posted to a fixed size ring buffer without taking a lock: a thread posting a command claims a slot by
+ * moving the tail along, and the worker takes commands from the head. If the buffer is full the command is dropped and
+ * counted rather than making the game wait. The worker parks while there is nothing to do, and is only woken by a
+ * command posted while it is parked.
+ */
+public class AudioDispatcher {
+
+  private static final Logger logger = LogManager.getLogger(AudioDispatcher.class);
+
+  /**
+   * The commands waiting to run. A slot is null until the command claimed for it has been written.
+   */
+  private final AtomicReferenceArray<Runnable> slots;
+
+  /**
+   * Used to turn a position into a slot, as the capacity is a power of two
+   */
+  private final int mask;
+
+  /**
+   * The position the next command will be posted to
+   */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * The position of the next command to run. Only moved by the worker.
+   */
+  private volatile long head;
+
+  /**
+   * The number of commands dropped because the buffer was full
+   */
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * Whether the worker is parked, or about to park, waiting for commands
+   */
+  private volatile boolean sleeping;
+
+  /**
+   * The worker thread running the commands
+   */
+  private final Thread worker;
+
+  /**
+   * Create a dispatcher and start its worker
+   * @param capacity how many commands can wait at once, rounded up to a power of two
+   */
+  public AudioDispatcher(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    slots = new AtomicReferenceArray<>(size);
+    mask = size - 1;
+    worker = new Thread(this::work, "audio");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  /**
+   * Post a command to run on the worker. Never blocks.
+   * @param command the command
+   * @return true if the command was queued, false if it was dropped because the buffer was full
+   */
+  public boolean post(Runnable command) {
+    long position;
+    do {
+      position = tail.get();
+      if (position - head > mask) {
+        long count = dropped.incrementAndGet();
+        logger.debug("Audio command dropped, {} dropped so far", count);
+        return false;
+      }
+    } while (!tail.compareAndSet(position, position + 1));
+    slots.set((int) position & mask, command);
+    if (sleeping) {
+      LockSupport.unpark(worker);
+    }
+    return true;
+  }
+
+  /**
+   * Get the number of commands dropped because the buffer was full
+   * @return commands dropped
+   */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Get the number of commands waiting to run
+   * @return commands waiting
+   */
+  public int getPending() {
+    return (int) Math.max(0, tail.get() - head);
+  }
+
+  /**
+   * Run commands as they are posted, forever
+   */
+  private void work() {
+    while (true) {
+      var command = poll();
+      if (command == null) {
+        sleeping = true;
+        //Check again, as a command posted just before sleeping was set would not wake the worker
+        if (isEmpty()) {
+          LockSupport.park(this);
+        }
+        sleeping = false;
+        continue;
+      }
+      try {
+        command.run();
+      } catch (Exception e) {
+        logger.warn("Audio command failed: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Take the next command, if it has been written
+   * @return the command, or null if there is none
+   */
+  private Runnable poll() {
+    int slot = (int) head & mask;
+    var command = slots.get(slot);
+    if (command == null) return null;
+    slots.set(slot, null);
+    head = head + 1;
+    return command;
+  }
+
+  /**
+   * Check whether there is a command to take
+   * @return true if there is no command waiting
+   */
+  private boolean isEmpty() {
+    return slots.get((int) head & mask) == null;
+  }
+}
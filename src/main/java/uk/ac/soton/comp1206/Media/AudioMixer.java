@@ -0,0 +1,294 @@
+package uk.ac.soton.comp1206.Media;
+
+import javafx.scene.media.AudioClip;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The AudioMixer decides which sound effects play, with a fixed number of voices so the sound stays bounded however
+ * fast sounds are asked for.
+ *
+ * A sound asked for again within the cooldown of its category is skipped. Otherwise it restarts on its own voice if it
+ * is still playing, or takes a free voice. When every voice is busy it takes the oldest voice with the lowest priority,
+ * as long as that priority is no higher than its own, so a line clear always cuts off a rotation but not the other way
+ * round.
+ *
+ * The volume of every effect is the master volume times the effects volume; music uses the master volume times the
+ * music volume. Sounds are only played by the audio thread of the {@link AudioDispatcher}, so the voices need no
+ * locking. The volumes can be set from any thread.
+ */
+public class AudioMixer {
+
+  private static final Logger logger = LogManager.getLogger(AudioMixer.class);
+
+  /**
+   * The number of sounds which can play at once
+   */
+  public static final int VOICES = 4;
+
+  /**
+   * The sound on each voice, or null if the voice has never been used
+   */
+  private final Sound[] voices = new Sound[VOICES];
+
+  /**
+   * When the sound on each voice started, in nanoseconds
+   */
+  private final long[] started = new long[VOICES];
+
+  /**
+   * The volume of everything, from 0 to 1
+   */
+  private volatile double masterVolume = 1;
+
+  /**
+   * The volume of the music, from 0 to 1
+   */
+  private volatile double musicVolume = 1;
+
+  /**
+   * The volume of the sound effects, from 0 to 1
+   */
+  private volatile double effectsVolume = 1;
+
+  /**
+   * Sounds started
+   */
+  private volatile long played;
+
+  /**
+   * Sounds skipped because they were asked for again within their cooldown
+   */
+  private volatile long cooledDown;
+
+  /**
+   * Sounds which stopped another to take its voice
+   */
+  private volatile long stolen;
+
+  /**
+   * Sounds dropped because every voice was busy with a more important sound
+   */
+  private volatile long dropped;
+
+  /**
+   * Create a sound which can be played through this mixer
+   * @param name the name of the sound
+   * @param clip the decoded clip
+   * @param category the category of the sound
+   * @return the sound
+   */
+  public Sound createSound(String name, AudioClip clip, SoundCategory category) {
+    return new Sound(name, clip, category);
+  }
+
+  /**
+   * Play a sound, if its cooldown has passed and it can have a voice. Only called on the audio thread.
+   * @param sound the sound
+   */
+  void play(Sound sound) {
+    long now = System.nanoTime();
+    if (sound.lastStarted != 0 && now - sound.lastStarted < sound.category.getCooldown()) {
+      cooledDown++;
+      return;
+    }
+
+    int voice = findVoice(sound);
+    if (voice < 0) {
+      dropped++;
+      logger.debug("No voice for {}", sound.name);
+      return;
+    }
+
+    var previous = voices[voice];
+    if (previous != null && previous.clip.isPlaying()) {
+      if (previous != sound) stolen++;
+      previous.clip.stop();
+    }
+    voices[voice] = sound;
+    started[voice] = now;
+    sound.lastStarted = now;
+    played++;
+    sound.clip.play(masterVolume * effectsVolume);
+  }
+
+  /**
+   * Find the voice a sound should play on
+   * @param sound the sound
+   * @return the voice, or -1 if every voice is busy with a more important sound
+   */
+  private int findVoice(Sound sound) {
+    int free = -1;
+    for (int voice = 0; voice < VOICES; voice++) {
+      var playing = voices[voice];
+      if (playing == sound) return voice;
+      if (free < 0 && (playing == null || !playing.clip.isPlaying())) free = voice;
+    }
+    if (free >= 0) return free;
+
+    int victim = -1;
+    for (int voice = 0; voice < VOICES; voice++) {
+      int priority = voices[voice].category.getPriority();
+      if (priority > sound.category.getPriority()) continue;
+      if (victim < 0 || priority < voices[victim].category.getPriority()
+          || (priority == voices[victim].category.getPriority() && started[voice] < started[victim])) {
+        victim = voice;
+      }
+    }
+    return victim;
+  }
+
+  /**
+   * Stop every sound. Only called on the audio thread.
+   */
+  void stopAll() {
+    for (int voice = 0; voice < VOICES; voice++) {
+      if (voices[voice] != null) {
+        voices[voice].clip.stop();
+      }
+    }
+  }
+
+  /**
+   * Get the volume of everything
+   * @return the volume, from 0 to 1
+   */
+  public double getMasterVolume() {
+    return masterVolume;
+  }
+
+  /**
+   * Set the volume of everything
+   * @param volume the volume, from 0 to 1
+   */
+  public void setMasterVolume(double volume) {
+    masterVolume = clamp(volume);
+  }
+
+  /**
+   * Get the volume of the music
+   * @return the volume, from 0 to 1
+   */
+  public double getMusicVolume() {
+    return musicVolume;
+  }
+
+  /**
+   * Set the volume of the music
+   * @param volume the volume, from 0 to 1
+   */
+  public void setMusicVolume(double volume) {
+    musicVolume = clamp(volume);
+  }
+
+  /**
+   * Get the volume of the sound effects
+   * @return the volume, from 0 to 1
+   */
+  public double getEffectsVolume() {
+    return effectsVolume;
+  }
+
+  /**
+   * Set the volume of the sound effects
+   * @param volume the volume, from 0 to 1
+   */
+  public void setEffectsVolume(double volume) {
+    effectsVolume = clamp(volume);
+  }
+
+  /**
+   * Get the volume music should play at, after the master volume
+   * @return the volume, from 0 to 1
+   */
+  public double getMusicOutput() {
+    return masterVolume * musicVolume;
+  }
+
+  /**
+   * Keep a volume between 0 and 1
+   * @param volume the volume
+   * @return the volume, from 0 to 1
+   */
+  private static double clamp(double volume) {
+    return Math.max(0, Math.min(1, volume));
+  }
+
+  /**
+   * Get the number of sounds started
+   * @return sounds started
+   */
+  public long getPlayed() {
+    return played;
+  }
+
+  /**
+   * Get the number of sounds skipped because they were asked for again within their cooldown
+   * @return sounds skipped
+   */
+  public long getCooledDown() {
+    return cooledDown;
+  }
+
+  /**
+   * Get the number of sounds which stopped another to take its voice
+   * @return sounds which took a voice
+   */
+  public long getStolen() {
+    return stolen;
+  }
+
+  /**
+   * Get the number of sounds dropped because every voice was busy with a more important sound
+   * @return sounds dropped
+   */
+  public long getDropped() {
+    return dropped;
+  }
+
+  /**
+   * A sound effect which can be played through the mixer
+   */
+  public class Sound implements Runnable {
+
+    /**
+     * The name of the sound
+     */
+    private final String name;
+
+    /**
+     * The decoded clip
+     */
+    private final AudioClip clip;
+
+    /**
+     * The category of the sound
+     */
+    private final SoundCategory category;
+
+    /**
+     * When the sound last started, in nanoseconds, or 0 if it never has
+     */
+    private long lastStarted;
+
+    /**
+     * Create a sound
+     * @param name the name of the sound
+     * @param clip the decoded clip
+     * @param category the category of the sound
+     */
+    private Sound(String name, AudioClip clip, SoundCategory category) {
+      this.name = name;
+      this.clip = clip;
+      this.category = category;
+    }
+
+    /**
+     * Play the sound through the mixer. Run on the audio thread, as the command posted to play it.
+     */
+    @Override
+    public void run() {
+      play(this);
+    }
+  }
+}
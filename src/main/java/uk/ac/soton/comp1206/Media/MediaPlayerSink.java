@@ -0,0 +1,78 @@
+package uk.ac.soton.comp1206.Media;
+
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URL;
+
+/**
+ * The MediaPlayerSink plays music through JavaFX. Each track is a MediaPlayer streaming from its URL, which loops
+ * inside the media engine rather than seeking back to the start when it ends, so the loop has no gap.
+ */
+public class MediaPlayerSink implements MusicSink {
+
+  private static final Logger logger = LogManager.getLogger(MediaPlayerSink.class);
+
+  /**
+   * Open a track as a MediaPlayer, silent and looping forever
+   * @param name the name of the track
+   * @param url where the track is
+   * @return the track
+   */
+  @Override
+  public Track open(String name, URL url) {
+    var player = new MediaPlayer(new Media(url.toExternalForm()));
+    player.setCycleCount(MediaPlayer.INDEFINITE);
+    player.setVolume(0);
+    player.setOnError(() -> logger.warn("Music {} failed: {}", name, player.getError().getMessage()));
+
+    return new PlayerTrack(player);
+  }
+
+  /**
+   * A track played by a MediaPlayer
+   */
+  private static class PlayerTrack implements Track {
+
+    /**
+     * The player
+     */
+    private final MediaPlayer player;
+
+    /**
+     * Create a track for a player
+     * @param player the player
+     */
+    PlayerTrack(MediaPlayer player) {
+      this.player = player;
+    }
+
+    /**
+     * Start the player
+     */
+    @Override
+    public void play() {
+      player.play();
+    }
+
+    /**
+     * Set the volume of the player
+     * @param volume the volume, from 0 to 1
+     */
+    @Override
+    public void setVolume(double volume) {
+      player.setVolume(volume);
+    }
+
+    /**
+     * Stop the player and release it
+     */
+    @Override
+    public void close() {
+      player.stop();
+      player.dispose();
+    }
+  }
+}
@@ -1,17 +1,23 @@
 package uk.ac.soton.comp1206.Media;
 
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
-import javafx.util.Duration;
+import javafx.scene.media.AudioClip;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.scene.MenuScene;
 
-import java.io.File;
-import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The Multimedia class is used to create objects that can be used to play audio or background music through the game.
+ *
+ * Sound effects are short clips, loaded once from the sounds folder on the classpath when the game starts. Playing one
+ * only posts a command to start a clip which is already decoded; the {@link AudioDispatcher} runs it on its own thread,
+ * so the game never waits for the media stack, whichever thread it calls from. The {@link AudioMixer} then limits how
+ * many effects play at once, and sets the volume of the effects and the music.
+ *
+ * Background music is streamed from the music folder by the {@link MusicPlayer}, which crossfades between tracks as
+ * scenes change.
  */
 public class Multimedia {
 
@@ -20,80 +26,181 @@ public class Multimedia {
    */
   private static final Logger logger = LogManager.getLogger(MenuScene.class);
 
+
+  /**
+   * The folder on the classpath holding the sound effects
+   */
+  private static final String SOUNDS = "/sounds/";
+
+  /**
+   * The sound effects in the sounds folder, with their categories
+   */
+  private static final Map<String, SoundCategory> CATEGORIES = Map.ofEntries(
+      Map.entry("clear.wav", SoundCategory.LINE_CLEAR),
+      Map.entry("explode.wav", SoundCategory.LINE_CLEAR),
+      Map.entry("lifegain.wav", SoundCategory.LIFE),
+      Map.entry("lifelose.wav", SoundCategory.LIFE),
+      Map.entry("level.wav", SoundCategory.LIFE),
+      Map.entry("place.wav", SoundCategory.PLACEMENT),
+      Map.entry("fail.wav", SoundCategory.PLACEMENT),
+      Map.entry("rotate.wav", SoundCategory.INPUT),
+      Map.entry("pling.wav", SoundCategory.INPUT),
+      Map.entry("intro.mp3", SoundCategory.INTERFACE),
+      Map.entry("message.wav", SoundCategory.INTERFACE),
+      Map.entry("transition.wav", SoundCategory.INTERFACE)
+  );
+
+  /**
+   * Decides which sound effects play, and how loud everything is
+   */
+  private static final AudioMixer mixer = new AudioMixer();
+
+  /**
+   * The loaded sound effects, by file name. Each is also the command which plays it, so playing allocates nothing.
+   */
+  private static final Map<String, AudioMixer.Sound> effects = new ConcurrentHashMap<>();
+
+  /**
+   * Runs the audio commands away from the game threads
+   */
+  private static final AudioDispatcher dispatcher = new AudioDispatcher(64);
+
   /**
-   * The MediaPlayer that is used to play audio
+   * The command stopping every sound effect
    */
-  private static MediaPlayer audioPlayer;
+  private static final Runnable STOP_EFFECTS = mixer::stopAll;
+
   /**
-   * MediaPlayer instance used to play music.
+   * Plays the background music. Runs silently if the system property tetrecs.music is set to silent, for running
+   * without an audio device.
    */
-  private static MediaPlayer musicPlayer;
+  private static final MusicPlayer music = new MusicPlayer(
+      "silent".equals(System.getProperty("tetrecs.music")) ? new SilentMusicSink() : new MediaPlayerSink(),
+      mixer::getMusicOutput);
 
   /**
-   * Boolean to verify is the sound is enabled or not
+   * Load every sound effect, so playing one never has to decode it. A clip which cannot be loaded is left out and
+   * logged, and every other clip still plays.
    */
-  private static boolean soundEnabled = true;
+  public static void loadClips() {
+    long start = System.nanoTime();
+    for (var entry : CATEGORIES.entrySet()) {
+      var name = entry.getKey();
+      if (effects.containsKey(name)) continue;
+      var url = Multimedia.class.getResource(SOUNDS + name);
+      if (url == null) {
+        logger.warn("Sound effect not found: {}", name);
+        continue;
+      }
+      try {
+        effects.put(name, mixer.createSound(name, new AudioClip(url.toExternalForm()), entry.getValue()));
+      } catch (Exception e) {
+        logger.warn("Could not load sound effect {}: {}", name, e.getMessage());
+      }
+    }
+    logger.info("Loaded {} sound effects in {}ms", effects.size(), (System.nanoTime() - start) / 1_000_000);
+  }
 
 
   /**
-   * Plays audio wherever necessary
+   * Plays a sound effect which has been loaded, on the audio thread, if the mixer gives it a voice. Does nothing if the
+   * clip could not be loaded, and drops the sound if too many are waiting to play.
    * @param file the name of the audio to play
    */
   public static void playAudio(String file) {
-    if(!soundEnabled) return;
-    try {
-      File audioFile = new File("/Users/apoorv/Desktop/Programming2CourseWork/coursework/src/main/resources/sounds/" + file);
-      URI audioFileURI = audioFile.toURI();
-      logger.debug(audioFile);
-      if (audioFileURI != null) {
-        var toPlay = audioFileURI.toString();
-        var media  = new Media(toPlay);
-        audioPlayer = new MediaPlayer(media);
-        audioPlayer.play();
-      } else {
-        logger.debug("The URI is null");
-      }
-    } catch (Exception e) {
-      e.printStackTrace();
-      logger.debug("Could not play the audio");
-       soundEnabled = false;
+    var effect = effects.get(file);
+    if (effect == null) {
+      logger.debug("No sound effect loaded for {}", file);
+      return;
     }
+    dispatcher.post(effect);
   }
 
   /**
-   * plays the background music
-   * @param file the name of the background music to play
+   * Get the dispatcher running the audio commands, for its counters
+   * @return the audio dispatcher
    */
-  public static void backgroundMusicPlayer (String file) {
+  public static AudioDispatcher getDispatcher() {
+    return dispatcher;
+  }
 
-    File audioFile = new File(
-    "/Users/apoorv/Desktop/Programming2CourseWork/coursework/src/main/resources/music/" + file);
-    URI audioFileURI = audioFile.toURI();
-    logger.debug(audioFile);
-    if (audioFileURI != null) {
-      var toPlay = audioFileURI.toString();
-      var media  = new Media(toPlay);
-      musicPlayer = new MediaPlayer(media);
-      musicPlayer.setOnEndOfMedia(() -> {
-        musicPlayer.seek(Duration.ZERO);
-      });
-      musicPlayer.play();
+  /**
+   * Get the mixer, for its counters and volumes
+   * @return the audio mixer
+   */
+  public static AudioMixer getMixer() {
+    return mixer;
+  }
 
-    } else {
-      logger.debug("The URI is null");
-    }
+  /**
+   * Set the volume of everything, including music already playing
+   * @param volume the volume, from 0 to 1
+   */
+  public static void setMasterVolume(double volume) {
+    mixer.setMasterVolume(volume);
+    updateMusicVolume();
   }
 
   /**
-   * Stops all the background music
+   * Set the volume of the music, including music already playing
+   * @param volume the volume, from 0 to 1
    */
-  public  static void stopBackgroundMusic(){
-    if(musicPlayer != null) {
-      musicPlayer.stop();
-    }
-    if(audioPlayer != null) {
-      audioPlayer.stop();
-    }
+  public static void setMusicVolume(double volume) {
+    mixer.setMusicVolume(volume);
+    updateMusicVolume();
+  }
+
+  /**
+   * Set the volume of the sound effects, from the next effect played
+   * @param volume the volume, from 0 to 1
+   */
+  public static void setEffectsVolume(double volume) {
+    mixer.setEffectsVolume(volume);
+  }
+
+  /**
+   * Apply the music volume to the music playing
+   */
+  private static void updateMusicVolume() {
+    music.updateVolume();
+  }
+
+  /**
+   * Crossfade to a track from the music folder, or carry on if it is already playing
+   * @param file the name of the track
+   */
+  public static void playMusic(String file) {
+    music.play(file);
+  }
+
+  /**
+   * Open a track from the music folder in advance, so it starts straight away when it is played
+   * @param file the name of the track
+   */
+  public static void preloadMusic(String file) {
+    music.preload(file);
+  }
+
+  /**
+   * Fade out the background music
+   */
+  public static void stopBackgroundMusic() {
+    music.stop();
+  }
+
+  /**
+   * Stop every sound effect still playing
+   */
+  public static void stopEffects() {
+    dispatcher.post(STOP_EFFECTS);
+  }
+
+  /**
+   * Get the music player
+   * @return the music player
+   */
+  public static MusicPlayer getMusic() {
+    return music;
   }
 
 }
@@ -0,0 +1,349 @@
+package uk.ac.soton.comp1206.Media;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+/**
+ * The MusicPlayer plays the background music, one track at a time, from the music folder on the classpath.
+ *
+ * Changing track crossfades: the new track fades in while the old one fades out, and the old one is only closed once it
+ * is silent. Asking for the track already playing carries on with it, so scenes sharing a track do not restart it.
+ * Tracks are streamed and loop without a gap. The track a scene is likely to want next can be opened in advance, so
+ * it starts straight away when it is asked for.
+ *
+ * Everything runs on a thread of its own, so callers never wait for a track to open. Where the music goes is decided
+ * by a {@link MusicSink}, so the player can run without an audio device.
+ */
+public class MusicPlayer {
+
+  private static final Logger logger = LogManager.getLogger(MusicPlayer.class);
+
+  /**
+   * The folder on the classpath holding the music
+   */
+  private static final String MUSIC = "/music/";
+
+  /**
+   * How long a crossfade takes, in nanoseconds
+   */
+  private static final long FADE_TIME = 1_000_000_000L;
+
+  /**
+   * How often the volumes are updated during a fade, in milliseconds
+   */
+  private static final long TICK = 20;
+
+  /**
+   * How many tracks can be opened in advance
+   */
+  private static final int PREPARED_LIMIT = 2;
+
+  /**
+   * Where the music goes
+   */
+  private final MusicSink sink;
+
+  /**
+   * The volume of the music bus, applied on top of each track's fade
+   */
+  private final DoubleSupplier busVolume;
+
+  /**
+   * The thread everything runs on
+   */
+  private final ScheduledExecutorService executor;
+
+  /**
+   * The track playing, or null for none. Only used on the music thread.
+   */
+  private Voice current;
+
+  /**
+   * Tracks fading out. Only used on the music thread.
+   */
+  private final List<Voice> fading = new ArrayList<>();
+
+  /**
+   * Tracks opened in advance and not yet played, oldest first. Only used on the music thread.
+   */
+  private final LinkedHashMap<String, MusicSink.Track> prepared = new LinkedHashMap<>();
+
+  /**
+   * Tracks which could not be found, so they are only looked for once. Only used on the music thread.
+   */
+  private final Set<String> missing = new HashSet<>();
+
+  /**
+   * Updates the volumes while a fade is running, or null
+   */
+  private ScheduledFuture<?> ticker;
+
+  /**
+   * When the volumes were last updated, in nanoseconds
+   */
+  private long lastTick;
+
+  /**
+   * Create a music player
+   * @param sink where the music goes
+   * @param busVolume the volume of the music bus, from 0 to 1
+   */
+  public MusicPlayer(MusicSink sink, DoubleSupplier busVolume) {
+    this.sink = sink;
+    this.busVolume = busVolume;
+    this.executor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+      var thread = new Thread(runnable, "music");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Crossfade to a track, or carry on if it is already playing
+   * @param name the file name of the track in the music folder
+   */
+  public void play(String name) {
+    executor.execute(() -> start(name));
+  }
+
+  /**
+   * Open a track in advance, so it can start straight away when it is played
+   * @param name the file name of the track in the music folder
+   */
+  public void preload(String name) {
+    executor.execute(() -> prepare(name));
+  }
+
+  /**
+   * Fade out the track playing
+   */
+  public void stop() {
+    executor.execute(this::fadeOutCurrent);
+  }
+
+  /**
+   * Apply a change of the music bus volume to the tracks playing
+   */
+  public void updateVolume() {
+    executor.execute(this::applyVolumes);
+  }
+
+  /**
+   * Run everything asked for so far, then return
+   * @param timeout how long to wait, in milliseconds
+   * @throws Exception if waiting is interrupted or times out
+   */
+  public void flush(long timeout) throws Exception {
+    executor.submit(() -> {}).get(timeout, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Get the name of the track playing
+   * @return the track, or null for none
+   * @throws Exception if waiting for the music thread fails
+   */
+  public String getCurrent() throws Exception {
+    return executor.submit(() -> current == null ? null : current.name).get(1, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Start fading to a track. Runs on the music thread.
+   * @param name the track
+   */
+  private void start(String name) {
+    if (current != null && current.name.equals(name)) {
+      current.target = 1;
+      startTicking();
+      return;
+    }
+    fadeOutCurrent();
+
+    //Bring back a track which is still fading out
+    for (Iterator<Voice> iterator = fading.iterator(); iterator.hasNext(); ) {
+      var voice = iterator.next();
+      if (voice.name.equals(name)) {
+        iterator.remove();
+        voice.target = 1;
+        current = voice;
+        startTicking();
+        return;
+      }
+    }
+
+    var track = prepared.remove(name);
+    if (track == null) {
+      track = open(name);
+    }
+    if (track == null) return;
+    logger.info("Playing music {}", name);
+    track.setVolume(0);
+    track.play();
+    current = new Voice(name, track);
+    startTicking();
+  }
+
+  /**
+   * Open a track in advance, closing the oldest one opened in advance if there are too many. Runs on the music thread.
+   * @param name the track
+   */
+  private void prepare(String name) {
+    if (prepared.containsKey(name) || (current != null && current.name.equals(name))) return;
+    for (var voice : fading) {
+      if (voice.name.equals(name)) return;
+    }
+    var track = open(name);
+    if (track == null) return;
+    prepared.put(name, track);
+    if (prepared.size() > PREPARED_LIMIT) {
+      var oldest = prepared.entrySet().iterator().next();
+      prepared.remove(oldest.getKey());
+      oldest.getValue().close();
+    }
+  }
+
+  /**
+   * Open a track from the music folder. Runs on the music thread.
+   * @param name the track
+   * @return the track, or null if it cannot be found or opened
+   */
+  private MusicSink.Track open(String name) {
+    if (missing.contains(name)) return null;
+    var url = MusicPlayer.class.getResource(MUSIC + name);
+    if (url == null) {
+      logger.warn("Music not found: {}", name);
+      missing.add(name);
+      return null;
+    }
+    try {
+      return sink.open(name, url);
+    } catch (Exception e) {
+      logger.warn("Could not open music {}: {}", name, e.getMessage());
+      missing.add(name);
+      return null;
+    }
+  }
+
+  /**
+   * Start fading out the track playing. Runs on the music thread.
+   */
+  private void fadeOutCurrent() {
+    if (current == null) return;
+    current.target = 0;
+    fading.add(current);
+    current = null;
+    startTicking();
+  }
+
+  /**
+   * Update the volumes regularly until every fade is over. Runs on the music thread.
+   */
+  private void startTicking() {
+    if (ticker != null) return;
+    lastTick = System.nanoTime();
+    ticker = executor.scheduleAtFixedRate(this::tick, 0, TICK, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Move every fade along, closing tracks which have faded out, and stop ticking once nothing is fading. Runs on the
+   * music thread.
+   */
+  private void tick() {
+    long now = System.nanoTime();
+    double step = (double) (now - lastTick) / FADE_TIME;
+    lastTick = now;
+
+    boolean moving = false;
+    if (current != null) {
+      moving = current.fade(step);
+    }
+    for (Iterator<Voice> iterator = fading.iterator(); iterator.hasNext(); ) {
+      var voice = iterator.next();
+      voice.fade(step);
+      if (voice.level == 0) {
+        voice.track.close();
+        iterator.remove();
+      }
+    }
+    applyVolumes();
+
+    if (!moving && fading.isEmpty()) {
+      ticker.cancel(false);
+      ticker = null;
+    }
+  }
+
+  /**
+   * Set the volume of every track playing from its fade and the music bus. Runs on the music thread.
+   */
+  private void applyVolumes() {
+    double bus = busVolume.getAsDouble();
+    if (current != null) {
+      current.track.setVolume(current.level * bus);
+    }
+    for (var voice : fading) {
+      voice.track.setVolume(voice.level * bus);
+    }
+  }
+
+  /**
+   * A track which is playing, with how far it has faded in
+   */
+  private static class Voice {
+
+    /**
+     * The name of the track
+     */
+    private final String name;
+
+    /**
+     * The track
+     */
+    private final MusicSink.Track track;
+
+    /**
+     * How loud the track is, before the music bus, from 0 to 1
+     */
+    private double level;
+
+    /**
+     * The level the track is fading towards
+     */
+    private double target = 1;
+
+    /**
+     * Create a voice for a track starting silent
+     * @param name the name of the track
+     * @param track the track
+     */
+    Voice(String name, MusicSink.Track track) {
+      this.name = name;
+      this.track = track;
+    }
+
+    /**
+     * Move the level towards the target
+     * @param step how far the level can move
+     * @return true until the level reaches the target
+     */
+    boolean fade(double step) {
+      if (level < target) {
+        level = Math.min(target, level + step);
+      } else if (level > target) {
+        level = Math.max(target, level - step);
+      }
+      return level != target;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package uk.ac.soton.comp1206.Media;
+
+import java.net.URL;
+
+/**
+ * A MusicSink is where the {@link MusicPlayer} sends music to be heard. The game uses the {@link MediaPlayerSink}; the
+ * {@link SilentMusicSink} only keeps track of what would be playing, for running without an audio device.
+ */
+public interface MusicSink {
+
+  /**
+   * A track opened on a sink. It does not start until it is played, and loops until it is closed.
+   */
+  public interface Track {
+
+    /**
+     * Start playing the track, looping without a gap
+     */
+    public void play();
+
+    /**
+     * Set how loud the track is
+     * @param volume the volume, from 0 to 1
+     */
+    public void setVolume(double volume);
+
+    /**
+     * Stop the track and release everything it holds
+     */
+    public void close();
+  }
+
+  /**
+   * Open a track, streaming it from a URL, ready to be played
+   * @param name the name of the track
+   * @param url where the track is
+   * @return the track
+   * @throws Exception if the track cannot be opened
+   */
+  public Track open(String name, URL url) throws Exception;
+}
@@ -0,0 +1,133 @@
+package uk.ac.soton.comp1206.Media;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SilentMusicSink plays nothing, but keeps track of what would be heard: which tracks are playing and how loud.
+ * It lets the music run without an audio device, and lets what the {@link MusicPlayer} does be checked.
+ */
+public class SilentMusicSink implements MusicSink {
+
+  /**
+   * Every track opened and not yet closed
+   */
+  private final List<SilentTrack> open = new ArrayList<>();
+
+  /**
+   * Open a silent track
+   * @param name the name of the track
+   * @param url where the track is
+   * @return the track
+   */
+  @Override
+  public synchronized Track open(String name, URL url) {
+    var track = new SilentTrack(name);
+    open.add(track);
+    return track;
+  }
+
+  /**
+   * Get the tracks which are open, playing or not
+   * @return a copy of the open tracks
+   */
+  public synchronized List<SilentTrack> getOpen() {
+    return new ArrayList<>(open);
+  }
+
+  /**
+   * Get the track which is playing loudest
+   * @return the track, or null if nothing can be heard
+   */
+  public synchronized SilentTrack getLoudest() {
+    SilentTrack loudest = null;
+    for (var track : open) {
+      if (track.playing && track.volume > 0 && (loudest == null || track.volume > loudest.volume)) {
+        loudest = track;
+      }
+    }
+    return loudest;
+  }
+
+  /**
+   * A track which records what is done to it
+   */
+  public class SilentTrack implements Track {
+
+    /**
+     * The name of the track
+     */
+    private final String name;
+
+    /**
+     * Whether the track has been played
+     */
+    private volatile boolean playing;
+
+    /**
+     * The volume of the track
+     */
+    private volatile double volume;
+
+    /**
+     * Create a silent track
+     * @param name the name of the track
+     */
+    private SilentTrack(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Mark the track as playing
+     */
+    @Override
+    public void play() {
+      playing = true;
+    }
+
+    /**
+     * Record the volume of the track
+     * @param volume the volume, from 0 to 1
+     */
+    @Override
+    public void setVolume(double volume) {
+      this.volume = volume;
+    }
+
+    /**
+     * Stop the track and forget it
+     */
+    @Override
+    public void close() {
+      playing = false;
+      synchronized (SilentMusicSink.this) {
+        open.remove(this);
+      }
+    }
+
+    /**
+     * Get the name of the track
+     * @return the name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Check whether the track has been played
+     * @return true if it is playing
+     */
+    public boolean isPlaying() {
+      return playing;
+    }
+
+    /**
+     * Get the volume of the track
+     * @return the volume, from 0 to 1
+     */
+    public double getVolume() {
+      return volume;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package uk.ac.soton.comp1206.Media;
+
+/**
+ * The SoundCategory of a sound effect decides how it competes for a voice in the {@link AudioMixer}. A sound with a
+ * higher priority can take the voice of one with a lower priority when every voice is busy, and a sound cannot be
+ * played again until its cooldown has passed since it last started.
+ */
+public enum SoundCategory {
+
+  /**
+   * Lines being cleared, the most important thing to hear
+   */
+  LINE_CLEAR(3, 100),
+
+  /**
+   * Lives and levels gained or lost
+   */
+  LIFE(3, 200),
+
+  /**
+   * Pieces being placed or rejected
+   */
+  PLACEMENT(2, 40),
+
+  /**
+   * Pieces being rotated or swapped, which can be pressed as fast as the player likes
+   */
+  INPUT(1, 60),
+
+  /**
+   * Menus, messages and transitions
+   */
+  INTERFACE(1, 100);
+
+  /**
+   * How important the sounds are, higher wins
+   */
+  private final int priority;
+
+  /**
+   * How long a sound must wait before it can start again, in nanoseconds
+   */
+  private final long cooldown;
+
+  /**
+   * Create a category
+   * @param priority how important the sounds are, higher wins
+   * @param cooldownMillis how long a sound must wait before it can start again, in milliseconds
+   */
+  SoundCategory(int priority, long cooldownMillis) {
+    this.priority = priority;
+    this.cooldown = cooldownMillis * 1_000_000;
+  }
+
+  /**
+   * Get how important the sounds are
+   * @return the priority, higher wins
+   */
+  public int getPriority() {
+    return priority;
+  }
+
+  /**
+   * Get how long a sound must wait before it can start again
+   * @return the cooldown in nanoseconds
+   */
+  public long getCooldown() {
+    return cooldown;
+  }
+}
@@ -0,0 +1,223 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.Glow;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BlockSprites is a cache of pre-rendered blocks of one size. Each block colour, the empty block and the flash shown
+ * when a line is cleared are rendered once, with their gradient, glow and border, and then simply drawn as an image
+ * every time a block is painted.
+ *
+ * There is one set of sprites per block size, shared by every board with that size. Sprites are rendered with a pixel
+ * for every pixel the block covers on the screen, so a block the size of 20 units in a window scaled by 1.5 has a sprite
+ * of 30 pixels, drawn back into 20 units of a {@link ScaledCanvas}. Sprites are only made and used on the JavaFX
+ * thread. The cache is emptied whenever the window settles at a new scale.
+ */
+public class BlockSprites {
+
+    private static final Logger logger = LogManager.getLogger(BlockSprites.class);
+
+    /**
+     * The colour of the flash when a line is cleared
+     */
+    private static final Color FLASH_COLOUR = Color.rgb(255, 255, 100);
+
+    /**
+     * The sprites of every block size in use
+     */
+    private static final List<BlockSprites> cache = new ArrayList<>();
+
+    /**
+     * The number of pixels the sprites hold for each unit of their size
+     */
+    private static double scale = 1;
+
+    /**
+     * The width of the blocks
+     */
+    private final double width;
+
+    /**
+     * The height of the blocks
+     */
+    private final double height;
+
+    /**
+     * The sprite for each block value, rendered when first needed. Value 0 is the empty block.
+     */
+    private final WritableImage[] blocks = new WritableImage[GameBlock.COLOURS.length];
+
+    /**
+     * The sprite of the flash, rendered when first needed
+     */
+    private WritableImage flash;
+
+    /**
+     * Create an empty set of sprites
+     * @param width the width of the blocks
+     * @param height the height of the blocks
+     */
+    private BlockSprites(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Get the sprites for a block size, creating them if this size has not been used yet
+     * @param width the width of the blocks
+     * @param height the height of the blocks
+     * @return the sprites
+     */
+    static BlockSprites get(double width, double height) {
+        for(int i = 0; i < cache.size(); i++) {
+            var sprites = cache.get(i);
+            if(sprites.width == width && sprites.height == height) return sprites;
+        }
+        logger.debug("Creating block sprites: {} x {}", width, height);
+        var sprites = new BlockSprites(width, height);
+        cache.add(sprites);
+        return sprites;
+    }
+
+    /**
+     * Set the number of pixels the sprites hold for each unit of their size, throwing away the sprites if it changed
+     * @param scalar the scale of the window
+     */
+    public static void setScale(double scalar) {
+        if(scalar == scale) return;
+        scale = scalar;
+        invalidate();
+    }
+
+    /**
+     * Get the number of pixels the sprites hold for each unit of their size
+     * @return the scale
+     */
+    public static double getScale() {
+        return scale;
+    }
+
+    /**
+     * Throw away every sprite, so they are rendered again the next time they are drawn
+     */
+    public static void invalidate() {
+        if(cache.isEmpty()) return;
+        logger.debug("Invalidating {} block sprite sizes", cache.size());
+        cache.clear();
+    }
+
+    /**
+     * Get the sprite for a block value
+     * @param value the value of the block, 0 for empty
+     * @return the sprite
+     */
+    WritableImage block(int value) {
+        var sprite = blocks[value];
+        if(sprite == null) {
+            var canvas = scaledCanvas();
+            if(value == 0) {
+                renderEmpty(canvas.getGraphicsContext2D(), width, height);
+            } else {
+                renderColor(canvas.getGraphicsContext2D(), GameBlock.COLOURS[value], width, height);
+            }
+            sprite = snapshot(canvas);
+            blocks[value] = sprite;
+        }
+        return sprite;
+    }
+
+    /**
+     * Get the sprite of the flash shown when a line is cleared, at full opacity
+     * @return the sprite
+     */
+    WritableImage flash() {
+        if(flash == null) {
+            var canvas = scaledCanvas();
+            renderColor(canvas.getGraphicsContext2D(), FLASH_COLOUR, width, height);
+            flash = snapshot(canvas);
+        }
+        return flash;
+    }
+
+    /**
+     * Create a canvas to render a sprite on, with a pixel for each pixel of the block on the screen. The drawing is
+     * scaled up, rather than the snapshot, as a snapshot of a canvas stretches the pixels it already has.
+     * @return the canvas, drawn on using the size of the blocks
+     */
+    private Canvas scaledCanvas() {
+        var canvas = new Canvas(Math.ceil(width * scale), Math.ceil(height * scale));
+        canvas.getGraphicsContext2D().scale(scale, scale);
+        return canvas;
+    }
+
+    /**
+     * Take an image of a canvas, keeping its transparency
+     * @param canvas the canvas
+     * @return the image
+     */
+    private static WritableImage snapshot(Canvas canvas) {
+        var parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(parameters, null);
+    }
+
+    /**
+     * Render an empty block
+     * @param gc where to render
+     * @param width width of the block
+     * @param height height of the block
+     */
+    private static void renderEmpty(GraphicsContext gc, double width, double height) {
+        //Fill
+        gc.setFill(Color.rgb(0, 0, 0, 0.4)); // Black with 50% opacity
+        gc.fillRect(0, 0, width, height);
+
+        //Border
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(2);
+        gc.strokeRect(0, 0, width, height);
+    }
+
+    /**
+     * Render a block of the given colour
+     * @param gc where to render
+     * @param colour the colour of the block
+     * @param width width of the block
+     * @param height height of the block
+     */
+    private static void renderColor(GraphicsContext gc, Color colour, double width, double height) {
+        Color darkerColor = colour.darker();
+        Color lighterColor = colour.brighter().brighter().brighter().brighter().brighter();
+
+        LinearGradient gradient = new LinearGradient(0, 0, 0, height, false, CycleMethod.NO_CYCLE,
+                new Stop(0, darkerColor),
+                new Stop(0.5, colour),
+                new Stop(1, lighterColor));
+
+        gc.setFill(gradient);
+
+        //Colour fill, glowing
+        Glow glow = new Glow();
+        glow.setLevel(0.5);
+        gc.setEffect(glow);
+        gc.fillRect(0, 0, width, height);
+        gc.setEffect(null);
+
+        //Border
+        gc.setStroke(Color.BLACK);
+        gc.setLineWidth(2);
+        gc.strokeRect(0, 0, width, height);
+    }
+}
@@ -0,0 +1,90 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A BoardAnimator runs every animation on a board, such as the fades of cleared blocks, from a single AnimationTimer.
+ * Each frame it advances all the running animations in one callback, however many blocks they cover.
+ *
+ * The timer only runs while there is something to animate, so an idle board costs nothing per frame.
+ */
+public class BoardAnimator {
+
+    /**
+     * An animation run by a BoardAnimator
+     */
+    public interface Animation {
+
+        /**
+         * Draw the next frame of the animation
+         * @param now the time of the frame in nanoseconds, as given to an AnimationTimer
+         * @return true if the animation is still running, false once it has finished
+         */
+        boolean animate(long now);
+    }
+
+    /**
+     * The running animations
+     */
+    private final List<Animation> animations = new ArrayList<>();
+
+    /**
+     * Advances the animations once per frame while any are running
+     */
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            animate(now);
+        }
+    };
+
+    /**
+     * Whether the timer is running
+     */
+    private boolean running;
+
+    /**
+     * Start running an animation from the next frame
+     * @param animation the animation
+     */
+    public void add(Animation animation) {
+        animations.add(animation);
+        if(!running) {
+            running = true;
+            timer.start();
+        }
+    }
+
+    /**
+     * Advance every running animation, dropping those which have finished and stopping the timer when none are left
+     * @param now the time of the frame in nanoseconds
+     */
+    private void animate(long now) {
+        int kept = 0;
+        //Animations added during the frame are run in it too
+        for(int i = 0; i < animations.size(); i++) {
+            var animation = animations.get(i);
+            if(animation.animate(now)) {
+                animations.set(kept++, animation);
+            }
+        }
+        for(int i = animations.size() - 1; i >= kept; i--) {
+            animations.remove(i);
+        }
+        if(animations.isEmpty()) {
+            timer.stop();
+            running = false;
+        }
+    }
+
+    /**
+     * Get the number of running animations
+     * @return running animations
+     */
+    public int getActive() {
+        return animations.size();
+    }
+}
@@ -0,0 +1,262 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.geometry.HPos;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.game.Grid;
+
+/**
+ * A CanvasGameBoard shows a grid the same way as a GameBoard, but draws the whole board on a single Canvas instead of
+ * using a Canvas node per block. Clicks and hovers are matched to a block by their position.
+ *
+ * The board listens to the grid for changed blocks and redraws only those, so it never creates the grid's properties.
+ * Listeners are still given GameBlocks: each one is a lightweight handle, created the first time it is needed, which
+ * is drawn by this board rather than by itself.
+ */
+public class CanvasGameBoard extends GameBoard {
+
+    private static final Logger logger = LogManager.getLogger(CanvasGameBoard.class);
+
+    /**
+     * The canvas the board is drawn on
+     */
+    private ScaledCanvas canvas;
+
+    /**
+     * The graphics context of the canvas
+     */
+    private GraphicsContext gc;
+
+    /**
+     * The width of each block
+     */
+    private double blockWidth;
+
+    /**
+     * The height of each block
+     */
+    private double blockHeight;
+
+    /**
+     * Create a new CanvasGameBoard, based off a given grid, with a visual width and height.
+     * @param grid linked grid
+     * @param width the visual width
+     * @param height the visual height
+     * @param hoverON whether to highlight blocks under the mouse
+     */
+    public CanvasGameBoard(Grid grid, double width, double height, Boolean hoverON) {
+        super(grid, width, height, hoverON);
+    }
+
+    /**
+     * Create a new CanvasGameBoard with it's own internal grid, specifying the number of columns and rows, along with
+     * the visual width and height.
+     * @param cols number of columns for internal grid
+     * @param rows number of rows for internal grid
+     * @param width the visual width
+     * @param height the visual height
+     * @param hoverON whether to highlight blocks under the mouse
+     */
+    public CanvasGameBoard(int cols, int rows, double width, double height, Boolean hoverON) {
+        super(cols, rows, width, height, hoverON);
+    }
+
+    /**
+     * Build the board as a single canvas, draw every block and start listening to the grid. Called by the GameBoard
+     * constructor, so fields are set here rather than where they are declared.
+     */
+    @Override
+    protected void build() {
+        logger.info("Building canvas grid: {} x {}", cols, rows);
+
+        setMaxWidth(width);
+        setMaxHeight(height);
+
+        blocks = new GameBlock[cols][rows];
+        blockWidth = width / cols;
+        blockHeight = height / rows;
+
+        canvas = new ScaledCanvas(width, height);
+        gc = canvas.getGraphicsContext2D();
+        add(canvas, 0, 0);
+        setHalignment(canvas, HPos.LEFT);
+        setValignment(canvas, VPos.TOP);
+
+        for(var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                paintValue(x, y);
+            }
+        }
+
+        buildOverlay();
+
+        grid.setOnBlockChanged((x, y, value) -> requestPaint(x, y));
+
+        canvas.setOnMouseMoved(this::mouseMoved);
+        canvas.setOnMouseExited((e) -> removeHighlight());
+        canvas.setOnMouseClicked(this::mouseClicked);
+        this.setOnMouseClicked(this::boardRightClick);
+    }
+
+    /**
+     * Get a specific block from the board, creating its handle the first time it is asked for
+     * @param x column
+     * @param y row
+     * @return game block at the given column and row
+     */
+    @Override
+    public GameBlock getBlock(int x, int y) {
+        var block = blocks[x][y];
+        if(block == null) {
+            block = new Handle(x, y);
+            blocks[x][y] = block;
+        }
+        return block;
+    }
+
+    /**
+     * Hold a pixel for every pixel the board covers on the screen at a new window scale, drawing the board again if
+     * the scale changed
+     * @param scale the scale the window has settled at
+     */
+    @Override
+    public void setPixelScale(double scale) {
+        if(!canvas.setPixelScale(scale)) return;
+        for(var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                paintBlock(x, y);
+            }
+        }
+    }
+
+    /**
+     * Find the block under a point of the canvas
+     * @param event the mouse event
+     * @return the block, or null if the point is outside the board
+     */
+    private GameBlock blockAt(MouseEvent event) {
+        int x = (int) Math.floor(event.getX() / canvas.getPixelScale() / blockWidth);
+        int y = (int) Math.floor(event.getY() / canvas.getPixelScale() / blockHeight);
+        if(x < 0 || y < 0 || x >= cols || y >= rows) return null;
+        return getBlock(x, y);
+    }
+
+    /**
+     * Highlight the block under the mouse
+     * @param event the mouse event
+     */
+    private void mouseMoved(MouseEvent event) {
+        var block = blockAt(event);
+        if(block == null) {
+            removeHighlight();
+        } else if(block != getHighlightedBlock()) {
+            highlightBlock(block);
+        }
+    }
+
+    /**
+     * Pass a click on a block to the block clicked listener, and remove the highlight as a block does
+     * @param event the mouse event
+     */
+    private void mouseClicked(MouseEvent event) {
+        var block = blockAt(event);
+        if(block == null) return;
+        if(event.getButton() == MouseButton.PRIMARY) {
+            removeHighlight();
+        }
+        blockClicked(event, block);
+    }
+
+    /**
+     * Paint one frame of the flash of a fading block
+     * @param x column
+     * @param y row
+     * @param opacity how strong the flash is, from 0 to 1
+     */
+    @Override
+    protected void paintFade(int x, int y, double opacity) {
+        GameBlock.paintFlash(gc, opacity, x * blockWidth, y * blockHeight, blockWidth, blockHeight);
+    }
+
+    /**
+     * Paint a block whose paint was requested, unless it is fading out
+     * @param x column
+     * @param y row
+     */
+    @Override
+    protected void paintBlock(int x, int y) {
+        if(!isFading(x, y)) {
+            paintValue(x, y);
+        }
+    }
+
+    /**
+     * Paint a block as its value in the grid
+     * @param x column
+     * @param y row
+     */
+    private void paintValue(int x, int y) {
+        GameBlock.paintBlock(gc, grid.get(x, y), x * blockWidth, y * blockHeight, blockWidth, blockHeight);
+    }
+
+    /**
+     * A block of a CanvasGameBoard. It has no canvas of its own, everything it is asked to paint is drawn on the
+     * board instead.
+     */
+    private class Handle extends GameBlock {
+
+        /**
+         * Create a handle for a block
+         * @param x column
+         * @param y row
+         */
+        Handle(int x, int y) {
+            super(CanvasGameBoard.this, x, y);
+        }
+
+        /**
+         * Highlight this block on the board
+         */
+        @Override
+        public void highlight() {
+            GameBlock.paintHighlight(gc, getX() * blockWidth, getY() * blockHeight, blockWidth, blockHeight);
+        }
+
+        /**
+         * Draw this block on the board without a highlight
+         */
+        @Override
+        public void clearHighlight() {
+            paint();
+        }
+
+        /**
+         * Draw this block on the board as its value in the grid
+         */
+        @Override
+        public void paint() {
+            paintValue(getX(), getY());
+        }
+
+        /**
+         * Mark this block as the centre of a piece
+         */
+        @Override
+        public void addCircle() {
+            GameBlock.paintCircle(gc, getX() * blockWidth, getY() * blockHeight, blockWidth, blockHeight);
+        }
+
+        /**
+         * Get the value of this block in the grid
+         * @return value
+         */
+        @Override
+        public int getValue() {
+            return grid.get(getX(), getY());
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+/**
+ * A FootprintOverlay is a transparent canvas laid over a board which shows where the current piece would go. It draws
+ * the blocks the piece would cover around the hovered block, green if the piece can be played there and red if not.
+ * With no piece it highlights just the hovered block.
+ *
+ * The overlay never paints the blocks of the board, so moving it only clears and draws the overlay itself. A board
+ * which shows only part of its grid sets the view, and the overlay draws blocks where that board draws them.
+ */
+public class FootprintOverlay extends Canvas {
+
+    /**
+     * The colour of a block highlighted without a piece
+     */
+    private static final Color HIGHLIGHT_COLOR = Color.DIMGREY;
+
+    /**
+     * The colour of the footprint where the piece can be played
+     */
+    private static final Color PLAYABLE_COLOR = Color.rgb(0, 255, 0, 0.35);
+
+    /**
+     * The colour of the footprint where the piece cannot be played
+     */
+    private static final Color BLOCKED_COLOR = Color.rgb(255, 0, 0, 0.35);
+
+    /**
+     * The grid the board displays
+     */
+    private final Grid grid;
+
+    /**
+     * The graphics context of the overlay
+     */
+    private final GraphicsContext gc;
+
+    /**
+     * The width of each block
+     */
+    private double blockWidth;
+
+    /**
+     * The height of each block
+     */
+    private double blockHeight;
+
+    /**
+     * The horizontal position in the whole board of the left edge of the overlay
+     */
+    private double originX;
+
+    /**
+     * The vertical position in the whole board of the top edge of the overlay
+     */
+    private double originY;
+
+    /**
+     * The piece whose footprint is shown, or null
+     */
+    private GamePiece shownPiece;
+
+    /**
+     * The column of the block the overlay is shown at, or -1 if it is empty
+     */
+    private int shownX = -1;
+
+    /**
+     * The row of the block the overlay is shown at
+     */
+    private int shownY;
+
+    /**
+     * Create an empty overlay for a board
+     * @param grid the grid the board displays
+     * @param width the width of the board
+     * @param height the height of the board
+     */
+    public FootprintOverlay(Grid grid, double width, double height) {
+        super(width, height);
+        this.grid = grid;
+        this.gc = getGraphicsContext2D();
+        this.blockWidth = width / grid.getCols();
+        this.blockHeight = height / grid.getRows();
+        setMouseTransparent(true);
+    }
+
+    /**
+     * Show the overlay at a block, replacing wherever it was shown before
+     * @param piece the piece to show the footprint of, or null to highlight just the block
+     * @param x column of the block, the centre of the piece
+     * @param y row of the block, the centre of the piece
+     */
+    public void show(GamePiece piece, int x, int y) {
+        clear();
+        shownX = x;
+        shownY = y;
+        shownPiece = piece;
+
+        if(piece == null) {
+            gc.setFill(HIGHLIGHT_COLOR);
+            gc.fillRect(left(x), top(y), blockWidth, blockHeight);
+            return;
+        }
+
+        gc.setFill(grid.canPlayPiece(piece, x, y) ? PLAYABLE_COLOR : BLOCKED_COLOR);
+        int mask = piece.getMask();
+        for(int blockY = 0; blockY < 3; blockY++) {
+            for(int blockX = 0; blockX < 3; blockX++) {
+                if((mask & (1 << (blockY * 3 + blockX))) == 0) continue;
+                int gridX = x + blockX - 1;
+                int gridY = y + blockY - 1;
+                if(gridX < 0 || gridY < 0 || gridX >= grid.getCols() || gridY >= grid.getRows()) continue;
+                gc.fillRect(left(gridX), top(gridY), blockWidth, blockHeight);
+            }
+        }
+
+        //Outline the block the piece is centred on
+        gc.setStroke(HIGHLIGHT_COLOR);
+        gc.setLineWidth(2);
+        gc.strokeRect(left(x) + 1, top(y) + 1, blockWidth - 2, blockHeight - 2);
+    }
+
+    /**
+     * Change which part of the board the overlay covers, moving anything shown to match
+     * @param originX the horizontal position in the whole board of the left edge of the overlay
+     * @param originY the vertical position in the whole board of the top edge of the overlay
+     * @param blockWidth the width of each block
+     * @param blockHeight the height of each block
+     */
+    public void setView(double originX, double originY, double blockWidth, double blockHeight) {
+        int x = shownX;
+        clear();
+        this.originX = originX;
+        this.originY = originY;
+        this.blockWidth = blockWidth;
+        this.blockHeight = blockHeight;
+        if(x >= 0) {
+            show(shownPiece, x, shownY);
+        }
+    }
+
+    /**
+     * Get the left edge of a column on the overlay
+     * @param x column
+     * @return the position
+     */
+    private double left(int x) {
+        return x * blockWidth - originX;
+    }
+
+    /**
+     * Get the top edge of a row on the overlay
+     * @param y row
+     * @return the position
+     */
+    private double top(int y) {
+        return y * blockHeight - originY;
+    }
+
+    /**
+     * Clear the overlay, only touching the blocks it was shown on
+     */
+    public void clear() {
+        if(shownX < 0) return;
+        gc.clearRect(left(shownX - 1), top(shownY - 1), 3 * blockWidth, 3 * blockHeight);
+        shownX = -1;
+    }
+
+    /**
+     * Check if the overlay is shown
+     * @return true if it is shown at a block
+     */
+    public boolean isShown() {
+        return shownX >= 0;
+    }
+
+    /**
+     * Get the column of the block the overlay is shown at
+     * @return column, or -1 if the overlay is not shown
+     */
+    public int getShownX() {
+        return shownX;
+    }
+
+    /**
+     * Get the row of the block the overlay is shown at
+     * @return row
+     */
+    public int getShownY() {
+        return shownY;
+    }
+}
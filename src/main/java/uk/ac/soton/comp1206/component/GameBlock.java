@@ -1,30 +1,24 @@
 package uk.ac.soton.comp1206.component;
 
-import javafx.animation.AnimationTimer;
-import javafx.animation.FadeTransition;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.value.ObservableValue;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.effect.DropShadow;
-import javafx.scene.effect.Effect;
-import javafx.scene.effect.Glow;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.*;
-import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
  * The Visual User Interface component representing a single block in the grid.
  *
- * Extends Canvas and is responsible for drawing itself.
+ * Extends Canvas, holding a pixel for every pixel it covers on the screen, and is responsible for drawing itself.
  *
  * Displays an empty square (when the value is 0) or a coloured square depending on value.
  *
  * The GameBlock value should be bound to a corresponding block in the Grid model.
  */
-public class GameBlock extends Canvas {
+public class GameBlock extends ScaledCanvas {
 
     /**
      * Logger class is used to produce log Statements which would help in
@@ -103,16 +97,13 @@ public class GameBlock extends Canvas {
      * @param height the height of the canvas to render
      */
     public GameBlock(GameBoard gameBoard, int x, int y, double width, double height) {
+        super(width, height);
         this.gameBoard = gameBoard;
         this.width = width;
         this.height = height;
         this.x = x;
         this.y = y;
 
-        //A canvas needs a fixed width and height
-        setWidth(width);
-        setHeight(height);
-
         //Do an initial paint
         paint();
         //When the value property is updated, call the internal updateValue method
@@ -121,32 +112,37 @@ public class GameBlock extends Canvas {
         setOnMouseClicked(this::mouseExited);
     }
 
+    /**
+     * Create a handle for a block which is drawn by its board rather than by itself. A handle has no size, is never
+     * added to the scene and does not paint, it only identifies the block to listeners.
+     * @param gameBoard the board this block belongs to
+     * @param x the column the block exists in
+     * @param y the row the block exists in
+     */
+    protected GameBlock(GameBoard gameBoard, int x, int y) {
+        super(0, 0);
+        this.gameBoard = gameBoard;
+        this.width = 0;
+        this.height = 0;
+        this.x = x;
+        this.y = y;
+    }
+
 
     /**
      * The fadeOut method is used to create a flash and a fadeout effect,
-     * and is called when the blocks are cleared.
+     * and is called when the blocks are cleared. The board animates it.
      */
     public void fadeOut() {
-        long fadeStartTime = System.nanoTime();
-       // logger.info("fade Start Time: {} ", fadeStartTime);
-
-        AnimationTimer fadeOutTimer = new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                double elapsedTime = (now - fadeStartTime) / 1_000_000.0;
-                // Convert nanoseconds to milliseconds
-                if (elapsedTime >= 1000.0) {
-                    stop();
-                    paintEmpty();
-                } else {
-                    // Calculate opacity based on elapsed time
-                    double opacity = 1.0 - (elapsedTime / 1000.0);
-//                    logger.debug("opacity: {}", opacity);
-                    paintColor(Color.rgb(255, 255, 100, opacity));
-                }
-            }
-        };
-        fadeOutTimer.start();
+        gameBoard.fadeOut(getX(), getY());
+    }
+
+    /**
+     * Paint the flash of a fade on this canvas
+     * @param opacity how strong the flash is, from 0 to 1
+     */
+    void paintFlash(double opacity) {
+        paintFlash(getGraphicsContext2D(), opacity, 0, 0, width, height);
     }
 
     /**
@@ -154,9 +150,7 @@ public class GameBlock extends Canvas {
      * and it highlights the block.
      */
     public void highlight() {
-            var gc = getGraphicsContext2D();
-            gc.setFill(HIGHLIGHT_COLOR);
-            gc.fillRect(0, 0, getWidth(), getHeight());
+            paintHighlight(getGraphicsContext2D(), 0, 0, width, height);
 
     }
 
@@ -188,26 +182,22 @@ public class GameBlock extends Canvas {
     }
 
     /**
-     * When the value of this block is updated,
+     * When the value of this block is updated, ask the board to paint it on the next pulse
      * @param observable what was updated
      * @param oldValue the old value
      * @param newValue the new value
      */
     private void updateValue(ObservableValue<? extends Number> observable, Number oldValue, Number newValue) {
-        paint();
+        gameBoard.requestPaint(x, y);
     }
 
     /**
-     * Handle painting of the block canvas
+     * Handle painting of the block canvas. A block which is fading out is left to the fade.
      */
     public void paint() {
-        //If the block is empty, paint as empty
-        if(value.get() == 0) {
-            paintEmpty();
-        } else {
-            //If the block is not empty, paint with the colour represented by the value
-            paintColor(COLOURS[value.get()]);
-        }
+        if(gameBoard.isFading(x, y)) return;
+        //Paint the sprite for the value, which is the empty block when the value is 0
+        paintBlock(getGraphicsContext2D(), value.get(), 0, 0, width, height);
     }
 
     /**
@@ -215,70 +205,68 @@ public class GameBlock extends Canvas {
      * display for reference.
      */
     public void addCircle() {
-        var gc = getGraphicsContext2D();
-
-        double centerX = width / 2;
-        double centerY = height / 2;
-        double radius = Math.min(width, height) / 4;
-
-        gc.setFill(Color.WHITE);
-        gc.fillOval(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
-
+        paintCircle(getGraphicsContext2D(), 0, 0, width, height);
     }
 
 
     /**
-     * Paint this canvas empty
+     * Paint a block as a value, using the sprite cache
+     * @param gc where to paint
+     * @param value the value of the block, 0 for empty
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
      */
-    private void paintEmpty() {
-        var gc = getGraphicsContext2D();
-
-        //Clear
-        gc.clearRect(0,0,width,height);
-
-        //Fill
-        gc.setFill(Color.rgb(0, 0, 0, 0.4)); // Black with 50% opacity
-        gc.fillRect(0, 0, width, height);
-
-        //Border
-        gc.setStroke(Color.BLACK);
-        gc.setLineWidth(2);
-        gc.strokeRect(0,0,width,height);
+    static void paintBlock(GraphicsContext gc, int value, double x, double y, double width, double height) {
+        gc.clearRect(x, y, width, height);
+        gc.drawImage(BlockSprites.get(width, height).block(value), x, y, width, height);
     }
 
     /**
-     * Paint this canvas with the given colour
-     * @param colour the colour to paint
+     * Paint the flash shown when a block is cleared, using the sprite cache
+     * @param gc where to paint
+     * @param opacity how strong the flash is, from 0 to 1
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
      */
-    private void paintColor(Paint colour) {
-        var gc = getGraphicsContext2D();
-
-        //Clear
-        gc.clearRect(0,0,width,height);
-
-        Color darkerColor = ((Color)colour).darker();
-        Color lighterColor = ((Color)colour).brighter().brighter().brighter().brighter().brighter();
-
-        LinearGradient gradient = new LinearGradient(0, 0, 0, height, false, CycleMethod.NO_CYCLE,
-                new Stop(0, darkerColor),
-                new Stop(0.5, (Color) colour),
-                new Stop(1, lighterColor));
-
-        gc.setFill(gradient);
-
-        //Colour fill
-//        gc.setFill(colour);
-
-        gc.fillRect(0,0, width, height);
+    static void paintFlash(GraphicsContext gc, double opacity, double x, double y, double width, double height) {
+        gc.clearRect(x, y, width, height);
+        gc.setGlobalAlpha(Math.max(0, Math.min(1, opacity)));
+        gc.drawImage(BlockSprites.get(width, height).flash(), x, y, width, height);
+        gc.setGlobalAlpha(1);
+    }
 
-        Glow glow = new Glow();
-        glow.setLevel(0.5);
-        gc.applyEffect(glow);
+    /**
+     * Paint a highlighted block
+     * @param gc where to paint
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
+     */
+    static void paintHighlight(GraphicsContext gc, double x, double y, double width, double height) {
+        gc.setFill(HIGHLIGHT_COLOR);
+        gc.fillRect(x, y, width, height);
+    }
 
+    /**
+     * Paint the circle marking the centre of a piece
+     * @param gc where to paint
+     * @param x left of the block
+     * @param y top of the block
+     * @param width width of the block
+     * @param height height of the block
+     */
+    static void paintCircle(GraphicsContext gc, double x, double y, double width, double height) {
+        double centerX = x + width / 2;
+        double centerY = y + height / 2;
+        double radius = Math.min(width, height) / 4;
 
-        //Border
-        gc.setStroke(Color.BLACK);
-        gc.strokeRect(0,0,width,height);
+        gc.setFill(Color.WHITE);
+        gc.fillOval(centerX - radius, centerY - radius, 2 * radius, 2 * radius);
     }
 
     /**
@@ -1,5 +1,7 @@
 package uk.ac.soton.comp1206.component;
 
+import javafx.geometry.HPos;
+import javafx.geometry.VPos;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
@@ -7,9 +9,12 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.BlockClickedListener;
 import uk.ac.soton.comp1206.event.RightClickListener;
+import uk.ac.soton.comp1206.game.CellMask;
+import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.game.Grid;
 
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 
 /**
  * A GameBoard is a visual component to represent the visual GameBoard.
@@ -24,30 +29,41 @@ import java.util.HashSet;
 public class GameBoard extends GridPane {
 
     private static final Logger logger = LogManager.getLogger(GameBoard.class);
-    private final Boolean canHover;
+    /**
+     * Whether blocks are highlighted when hovered over or picked with the keyboard
+     */
+    protected final Boolean canHover;
 
-    private GameBlock highlightedBlock;
+    /**
+     * The overlay showing the highlighted block and the footprint of the current piece, or null if the board does
+     * not highlight
+     */
+    private FootprintOverlay overlay;
 
+    /**
+     * The piece whose footprint is shown at the highlighted block, or null to highlight just the block
+     */
+    private GamePiece previewPiece;
 
     /**
      * Number of columns in the board
      */
-    private final int cols;
+    protected final int cols;
 
     /**
      * Number of rows in the board
      */
-    private final int rows;
+    protected final int rows;
 
     /**
      * The visual width of the board - has to be specified due to being a Canvas
      */
-    private final double width;
+    protected final double width;
 
     /**
      * The visual height of the board - has to be specified due to being a Canvas
      */
-    private final double height;
+    protected final double height;
 
     /**
      * The grid this GameBoard represents
@@ -59,6 +75,32 @@ public class GameBoard extends GridPane {
      */
      GameBlock[][] blocks;
 
+    /**
+     * Collects the blocks which have changed and paints them once per pulse
+     */
+    private final RepaintBatcher repaints;
+
+    /**
+     * Runs the animations on this board
+     */
+    private final BoardAnimator animator = new BoardAnimator();
+
+    /**
+     * The number of fades holding each block, by row-major index. A block held by any fade is painted by the fades
+     * rather than as its value, and is only released by the last fade that holds it.
+     */
+    private final byte[] fading;
+
+    /**
+     * Fades which have finished, kept to be used again by the next blocks cleared
+     */
+    private final ArrayDeque<Fade> spareFades = new ArrayDeque<>();
+
+    /**
+     * How long a cleared block takes to fade out, in nanoseconds
+     */
+    private static final long FADE_TIME = 1_000_000_000L;
+
     /**
      * The listener to call when a specific block is clicked
      */
@@ -79,6 +121,8 @@ public class GameBoard extends GridPane {
         this.height = height;
         this.grid = grid;
         this.canHover = hoverON;
+        this.repaints = new RepaintBatcher(cols, rows, this::paintBlock);
+        this.fading = new byte[cols * rows];
 
         //Build the GameBoard
         build();
@@ -100,7 +144,8 @@ public class GameBoard extends GridPane {
         this.height = height;
         this.grid = new Grid(cols,rows);
         this.canHover = hoverON;
-
+        this.repaints = new RepaintBatcher(cols, rows, this::paintBlock);
+        this.fading = new byte[cols * rows];
 
         //Build the GameBoard
         build();
@@ -116,6 +161,63 @@ public class GameBoard extends GridPane {
         return blocks[x][y];
     }
 
+    /**
+     * Get the number of columns in the board
+     * @return columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows in the board
+     * @return rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Ask for a block to be painted on the next pulse, along with every other block which changes before then
+     * @param x column
+     * @param y row
+     */
+    public void requestPaint(int x, int y) {
+        repaints.request(x, y);
+    }
+
+    /**
+     * Paint a block whose paint was requested. Called once per pulse for each waiting block.
+     * @param x column
+     * @param y row
+     */
+    protected void paintBlock(int x, int y) {
+        blocks[x][y].paint();
+    }
+
+    /**
+     * Hold a pixel for every pixel the board covers on the screen at a new window scale, drawing the blocks again if
+     * the scale changed
+     * @param scale the scale the window has settled at
+     */
+    public void setPixelScale(double scale) {
+        for(var y = 0; y < rows; y++) {
+            for (var x = 0; x < cols; x++) {
+                if(blocks[x][y].setPixelScale(scale)) {
+                    paintBlock(x, y);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the batcher painting the changed blocks of this board, for its counters
+     * @return the repaint batcher
+     */
+    public RepaintBatcher getRepaints() {
+        return repaints;
+    }
+
     /**
      * Build the GameBoard by creating a block at every x and y column and row
      */
@@ -134,6 +236,27 @@ public class GameBoard extends GridPane {
                 createBlock(x,y);
             }
         }
+
+        buildOverlay();
+    }
+
+    /**
+     * Lay the highlight overlay over the whole board, if the board highlights blocks
+     */
+    protected void buildOverlay() {
+        if(!canHover) return;
+        overlay = new FootprintOverlay(grid, width, height);
+        add(overlay, 0, 0);
+        setColumnSpan(overlay, cols);
+        setRowSpan(overlay, rows);
+    }
+
+    /**
+     * Get the overlay showing the highlighted block
+     * @return the overlay, or null if the board does not highlight
+     */
+    protected FootprintOverlay getOverlay() {
+        return overlay;
     }
 
     /**
@@ -148,8 +271,10 @@ public class GameBoard extends GridPane {
         //Create a new GameBlock UI component
         GameBlock block = new GameBlock(this, x, y, blockWidth, blockHeight);
 
-        //Add to the GridPane
+        //Add to the GridPane, at the top left of its cell as it is larger than it looks
         add(block,x,y);
+        setHalignment(block, HPos.LEFT);
+        setValignment(block, VPos.TOP);
 
         //Add to our block directory
         blocks[x][y] = block;
@@ -173,7 +298,7 @@ public class GameBoard extends GridPane {
      * and this in turn rotates the piece.
      * @param event contains information about the mouseEvent that .
      */
-    private void boardRightClick(MouseEvent event) {
+    protected void boardRightClick(MouseEvent event) {
         if (event.getButton() == MouseButton.SECONDARY && rightClickListener != null) {
             rightClickListener.rotatePiece();
         }
@@ -201,7 +326,7 @@ public class GameBoard extends GridPane {
      * @param event mouse event
      * @param block block clicked on
      */
-    private void blockClicked(MouseEvent event, GameBlock block) {
+    protected void blockClicked(MouseEvent event, GameBlock block) {
         logger.info("Block clicked: {}", block);
 
         if(event.getButton() == MouseButton.PRIMARY &&blockClickedListener != null) {
@@ -209,14 +334,6 @@ public class GameBoard extends GridPane {
         }
     }
 
-    /**
-     * Returns the GameBlocks on the current Board
-     * @return the GameBlock 2D array is returned.
-     */
-    public GameBlock[][] getBlocks() {
-        return blocks;
-    }
-
     /**
      * Rotates the current piece on display on PieceBoard display.
      */
@@ -230,38 +347,201 @@ public class GameBoard extends GridPane {
     }
 
     /**
-     * Highlights the block on the board by calling the
-     * highlight method of the GameBlock class.
+     * Highlights the block on the board on the overlay, along with the
+     * footprint of the preview piece if there is one.
      * @param block the block on which the highlight effect is to be called.
      */
     public void highlightBlock(GameBlock block) {
-        removeHighlight();
-        if (block != null && canHover) {
-            highlightedBlock = block;
-            block.highlight();
+        if (block == null) {
+            removeHighlight();
+        } else if (canHover) {
+            overlay.show(previewPiece, block.getX(), block.getY());
         }
-
     }
 
     /**
      * Removes the highlight of the block.
      */
     public void removeHighlight() {
-        if (highlightedBlock != null) {
-            highlightedBlock.clearHighlight();
-            highlightedBlock = null;
+        if (overlay != null) {
+            overlay.clear();
+        }
+    }
+
+    /**
+     * Set the piece whose footprint is shown at the highlighted block, redrawing the highlight if it is shown
+     * @param piece the piece, or null to highlight just the block
+     */
+    public void setPreviewPiece(GamePiece piece) {
+        this.previewPiece = piece;
+        if (overlay != null && overlay.isShown()) {
+            overlay.show(piece, overlay.getShownX(), overlay.getShownY());
         }
+    }
 
+    /**
+     * Get the column and row of the highlighted block
+     * @return the highlighted block, or null if no block is highlighted
+     */
+    public GameBlock getHighlightedBlock() {
+        if (overlay == null || !overlay.isShown()) return null;
+        return getBlock(overlay.getShownX(), overlay.getShownY());
     }
 
     /**
-     * Created a fadeOut effect on a Hashset of GameBlocks, when a line is cleared
-     * @param coordinateHashSet the coordinates of the block on which the fadeout animation
-     *                          should be called
+     * Created a fadeOut effect on a set of GameBlocks, when a line is cleared. The blocks are copied, as the set is
+     * only valid for the length of the call, and all of them are faded by one animation.
+     * @param clearedCells the blocks on which the fadeout animation should be called
      */
-    public void fadeOut(HashSet<GameBlockCoordinate> coordinateHashSet) {
-        for(GameBlockCoordinate blockCoordinate : coordinateHashSet) {
-            blocks[blockCoordinate.getX()][blockCoordinate.getY()].fadeOut();
+    public void fadeOut(CellMask clearedCells) {
+        fadeOut(clearedCells, 0, 0, cols - 1, rows - 1);
+    }
+
+    /**
+     * Fade out the blocks of a set which lie in a range of columns and rows, as one animation. Only the range is
+     * looked at, so a board showing part of a large grid need not walk the whole set.
+     * @param clearedCells the blocks to fade
+     * @param firstX the first column to look at
+     * @param firstY the first row to look at
+     * @param lastX the last column to look at
+     * @param lastY the last row to look at
+     */
+    protected void fadeOut(CellMask clearedCells, int firstX, int firstY, int lastX, int lastY) {
+        var fade = obtainFade();
+        for(int y = firstY; y <= lastY; y++) {
+            for(int x = firstX; x <= lastX; x++) {
+                if(clearedCells.contains(x, y)) {
+                    fade.add(x, y);
+                }
+            }
+        }
+        if(fade.count > 0) {
+            animator.add(fade);
+        } else {
+            spareFades.push(fade);
+        }
+    }
+
+    /**
+     * Fade out a single block
+     * @param x column
+     * @param y row
+     */
+    public void fadeOut(int x, int y) {
+        var fade = obtainFade();
+        fade.add(x, y);
+        animator.add(fade);
+    }
+
+    /**
+     * Get a finished fade to use again, or a new one if there is none, started now
+     * @return the fade, holding no blocks
+     */
+    private Fade obtainFade() {
+        var fade = spareFades.poll();
+        if(fade == null) {
+            fade = new Fade();
+        }
+        fade.start = System.nanoTime();
+        return fade;
+    }
+
+    /**
+     * Check if a block is fading out
+     * @param x column
+     * @param y row
+     * @return true if the fade is painting the block
+     */
+    public boolean isFading(int x, int y) {
+        if(x < 0 || y < 0 || x >= cols || y >= rows) return false;
+        return fading[y * cols + x] != 0;
+    }
+
+    /**
+     * Paint one frame of the flash of a fading block
+     * @param x column
+     * @param y row
+     * @param opacity how strong the flash is, from 0 to 1
+     */
+    protected void paintFade(int x, int y, double opacity) {
+        blocks[x][y].paintFlash(opacity);
+    }
+
+    /**
+     * Get the animator running the animations on this board
+     * @return the board animator
+     */
+    public BoardAnimator getAnimator() {
+        return animator;
+    }
+
+    /**
+     * The flash and fade out of a set of cleared blocks. Once finished it is kept to fade the next blocks cleared.
+     */
+    private class Fade implements BoardAnimator.Animation {
+
+        /**
+         * The blocks fading, as row-major indexes
+         */
+        private int[] cells = new int[8];
+
+        /**
+         * The number of blocks fading
+         */
+        private int count;
+
+        /**
+         * When the fade started, in nanoseconds
+         */
+        private long start;
+
+        /**
+         * Add a block to the fade, marking it as fading
+         * @param x column
+         * @param y row
+         */
+        void add(int x, int y) {
+            int index = y * cols + x;
+            //The fades already holding the block keep painting it
+            if(fading[index] == Byte.MAX_VALUE) return;
+            fading[index]++;
+            if(count == cells.length) {
+                cells = Arrays.copyOf(cells, count * 2);
+            }
+            cells[count++] = index;
+        }
+
+        /**
+         * Paint the flash at the strength for this frame, or paint the blocks as their values once it is over
+         * @param now the time of the frame in nanoseconds
+         * @return true until the fade is over
+         */
+        @Override
+        public boolean animate(long now) {
+            long elapsed = now - start;
+            if(elapsed >= FADE_TIME) {
+                for(int i = 0; i < count; i++) {
+                    release(cells[i]);
+                }
+                count = 0;
+                spareFades.push(this);
+                return false;
+            }
+            double opacity = 1.0 - (double) Math.max(0, elapsed) / FADE_TIME;
+            for(int i = 0; i < count; i++) {
+                paintFade(cells[i] % cols, cells[i] / cols, opacity);
+            }
+            return true;
+        }
+
+        /**
+         * Let go of a block at the end of the fade, painting it as its value unless a later fade still holds it
+         * @param index the block, as a row-major index
+         */
+        private void release(int index) {
+            if(--fading[index] == 0) {
+                paintBlock(index % cols, index / cols);
+            }
         }
     }
 }
@@ -0,0 +1,113 @@
+package uk.ac.soton.comp1206.component;
+
+import java.io.PrintWriter;
+
+/**
+ * A Histogram counts durations in buckets which double in size, from under 2 microseconds up to over a minute. Recording
+ * a duration is a few instructions and never allocates, so it can be done every frame.
+ *
+ * Percentiles are given as the upper bound of the bucket they fall in, so they are at most twice the real value.
+ */
+class Histogram {
+
+    /**
+     * The number of buckets, bucket i holding durations below 2^(i+1) microseconds
+     */
+    private static final int BUCKETS = 27;
+
+    /**
+     * The name of the histogram
+     */
+    private final String name;
+
+    /**
+     * The count in each bucket
+     */
+    private final long[] counts = new long[BUCKETS];
+
+    /**
+     * The number of durations recorded
+     */
+    private long count;
+
+    /**
+     * The total of the durations recorded, in nanoseconds
+     */
+    private long total;
+
+    /**
+     * The longest duration recorded, in nanoseconds
+     */
+    private long max;
+
+    /**
+     * Create an empty histogram
+     * @param name the name of the histogram
+     */
+    Histogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record a duration
+     * @param nanos the duration in nanoseconds
+     */
+    synchronized void record(long nanos) {
+        if(nanos < 0) return;
+        long micros = nanos / 1000;
+        int bucket = micros == 0 ? 0 : 63 - Long.numberOfLeadingZeros(micros);
+        counts[Math.min(bucket, BUCKETS - 1)]++;
+        count++;
+        total += nanos;
+        if(nanos > max) max = nanos;
+    }
+
+    /**
+     * Get the number of durations recorded
+     * @return count
+     */
+    synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the duration below which a share of the recorded durations fall
+     * @param fraction the share, from 0 to 1
+     * @return the upper bound of the bucket holding the percentile, in nanoseconds, or 0 if nothing is recorded
+     */
+    synchronized long percentile(double fraction) {
+        if(count == 0) return 0;
+        long target = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if(seen >= target && seen > 0) {
+                return Math.min(max, upperBound(bucket));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Get the upper bound of a bucket
+     * @param bucket the bucket
+     * @return the bound in nanoseconds
+     */
+    private static long upperBound(int bucket) {
+        return (2L << bucket) * 1000;
+    }
+
+    /**
+     * Write the histogram as text
+     * @param out where to write
+     */
+    synchronized void write(PrintWriter out) {
+        out.printf("%s: count %d, mean %.3fms, p50 %.3fms, p95 %.3fms, p99 %.3fms, max %.3fms%n", name, count,
+                count == 0 ? 0.0 : total / 1e6 / count, percentile(0.5) / 1e6, percentile(0.95) / 1e6,
+                percentile(0.99) / 1e6, max / 1e6);
+        for(int bucket = 0; bucket < BUCKETS; bucket++) {
+            if(counts[bucket] == 0) continue;
+            out.printf("  < %10.3fms %d%n", upperBound(bucket) / 1e6, counts[bucket]);
+        }
+    }
+}
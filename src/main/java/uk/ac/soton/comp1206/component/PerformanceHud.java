@@ -0,0 +1,408 @@
+package uk.ac.soton.comp1206.component;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import javafx.animation.AnimationTimer;
+import javafx.event.EventHandler;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.text.Text;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * The PerformanceHud shows how much the game costs to run while it is being played: frames per second, the time each
+ * pulse takes up to the end of layout, blocks painted per second, memory allocated by the JavaFX thread, garbage
+ * collections, and the time from a key press to the end of the next pulse.
+ *
+ * While running it records every frame, pulse, key press and garbage collection in histograms, which can be written to
+ * a file at the end of the session. The work per frame is a few subtractions, and the text is only updated twice a
+ * second, so it can be left on while playing. When stopped it removes all its listeners and costs nothing.
+ */
+public class PerformanceHud extends Text {
+
+    private static final Logger logger = LogManager.getLogger(PerformanceHud.class);
+
+    /**
+     * How often the text is updated, in nanoseconds
+     */
+    private static final long UPDATE_INTERVAL = 500_000_000L;
+
+    /**
+     * The time between frames
+     */
+    private final Histogram frameTimes = new Histogram("frame interval");
+
+    /**
+     * The time from the start of a pulse to the end of its layout
+     */
+    private final Histogram pulseTimes = new Histogram("pulse to end of layout");
+
+    /**
+     * The time from a key press to the end of the next pulse
+     */
+    private final Histogram keyLatencies = new Histogram("key press to paint");
+
+    /**
+     * The duration of each garbage collection
+     */
+    private final Histogram gcPauses = new Histogram("garbage collection");
+
+    /**
+     * Called at the start of every pulse while running
+     */
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            frame(now);
+        }
+    };
+
+    /**
+     * Called at the end of the layout of every pulse while running
+     */
+    private final Runnable pulseListener = this::pulseEnded;
+
+    /**
+     * Called for every key pressed in the scene while running
+     */
+    private final EventHandler<KeyEvent> keyFilter = (e) -> keyPressed();
+
+    /**
+     * Called after every garbage collection while running
+     */
+    private final NotificationListener gcListener = this::garbageCollected;
+
+    /**
+     * The garbage collectors of the JVM
+     */
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    /**
+     * The thread bean, if it can measure the memory allocated by a thread
+     */
+    private final com.sun.management.ThreadMXBean threads;
+
+    /**
+     * The scene being measured, or null when stopped
+     */
+    private Scene scene;
+
+    /**
+     * When the session started, in milliseconds
+     */
+    private long sessionStart;
+
+    /**
+     * The start of the current pulse, or 0 if it has been measured
+     */
+    private long pulseStart;
+
+    /**
+     * The start of the previous frame, or 0 if there was none
+     */
+    private long lastFrame;
+
+    /**
+     * When the first key since the last pulse was pressed, or 0 if none was
+     */
+    private long keyPressedAt;
+
+    /**
+     * When the current update interval started
+     */
+    private long intervalStart;
+
+    /**
+     * Frames in the current interval
+     */
+    private int frames;
+
+    /**
+     * Total pulse time in the current interval
+     */
+    private long pulseTotal;
+
+    /**
+     * Longest pulse in the current interval
+     */
+    private long pulseMax;
+
+    /**
+     * Longest key press latency in the current interval, or -1 if no key was pressed
+     */
+    private long keyMax = -1;
+
+    /**
+     * Paints performed by the boards at the start of the interval
+     */
+    private long paintsAtStart;
+
+    /**
+     * Bytes allocated by the JavaFX thread at the start of the interval
+     */
+    private long allocatedAtStart;
+
+    /**
+     * Garbage collections at the start of the interval
+     */
+    private long gcCountAtStart;
+
+    /**
+     * Garbage collection time at the start of the interval, in milliseconds
+     */
+    private long gcTimeAtStart;
+
+    /**
+     * Create a stopped HUD
+     */
+    public PerformanceHud() {
+        var bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threads = (com.sun.management.ThreadMXBean) bean;
+            threads.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threads = null;
+        }
+        getStyleClass().add("hud");
+        setMouseTransparent(true);
+        setVisible(false);
+    }
+
+    /**
+     * Start or stop measuring a scene
+     * @param scene the scene
+     */
+    public void toggle(Scene scene) {
+        if(isRunning()) {
+            stop();
+        } else {
+            start(scene);
+        }
+    }
+
+    /**
+     * Start measuring a scene and show the HUD
+     * @param scene the scene
+     */
+    public void start(Scene scene) {
+        if(isRunning()) return;
+        logger.info("Starting the performance HUD");
+        this.scene = scene;
+        if(sessionStart == 0) sessionStart = System.currentTimeMillis();
+        scene.addPostLayoutPulseListener(pulseListener);
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, keyFilter);
+        for(var collector : collectors) {
+            if(collector instanceof NotificationEmitter) {
+                ((NotificationEmitter) collector).addNotificationListener(gcListener, null, null);
+            }
+        }
+        lastFrame = 0;
+        pulseStart = 0;
+        keyPressedAt = 0;
+        startInterval(System.nanoTime());
+        setText("Measuring...");
+        setVisible(true);
+        timer.start();
+    }
+
+    /**
+     * Stop measuring and hide the HUD. What has been recorded is kept until it is written.
+     */
+    public void stop() {
+        if(!isRunning()) return;
+        logger.info("Stopping the performance HUD");
+        timer.stop();
+        scene.removePostLayoutPulseListener(pulseListener);
+        scene.removeEventFilter(KeyEvent.KEY_PRESSED, keyFilter);
+        for(var collector : collectors) {
+            if(collector instanceof NotificationEmitter) {
+                try {
+                    ((NotificationEmitter) collector).removeNotificationListener(gcListener);
+                } catch (ListenerNotFoundException e) {
+                    //Nothing to remove
+                }
+            }
+        }
+        scene = null;
+        setVisible(false);
+    }
+
+    /**
+     * Check if the HUD is measuring
+     * @return true if it is running
+     */
+    public boolean isRunning() {
+        return scene != null;
+    }
+
+    /**
+     * Record the start of a frame, and update the text once an interval has passed
+     * @param now the time of the frame in nanoseconds
+     */
+    private void frame(long now) {
+        if(lastFrame != 0) {
+            frameTimes.record(now - lastFrame);
+        }
+        lastFrame = now;
+        pulseStart = now;
+        frames++;
+        if(now - intervalStart >= UPDATE_INTERVAL) {
+            update(now);
+        }
+    }
+
+    /**
+     * Record the time the pulse took, and the latency of any key pressed before it
+     */
+    private void pulseEnded() {
+        long now = System.nanoTime();
+        if(pulseStart != 0) {
+            long pulse = now - pulseStart;
+            pulseTimes.record(pulse);
+            pulseTotal += pulse;
+            if(pulse > pulseMax) pulseMax = pulse;
+            pulseStart = 0;
+        }
+        if(keyPressedAt != 0) {
+            long latency = now - keyPressedAt;
+            keyLatencies.record(latency);
+            if(latency > keyMax) keyMax = latency;
+            keyPressedAt = 0;
+        }
+    }
+
+    /**
+     * Note when a key was pressed, if it is the first since the last pulse
+     */
+    private void keyPressed() {
+        if(keyPressedAt == 0) {
+            keyPressedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Record the duration of a garbage collection. Called on a JVM notification thread.
+     * @param notification the notification
+     * @param handback unused
+     */
+    private void garbageCollected(Notification notification, Object handback) {
+        if(!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+        var info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        gcPauses.record(info.getGcInfo().getDuration() * 1_000_000);
+    }
+
+    /**
+     * Show the figures for the interval which has just ended, and start the next one
+     * @param now the current time in nanoseconds
+     */
+    private void update(long now) {
+        double seconds = (now - intervalStart) / 1e9;
+        long paints = RepaintBatcher.getTotalPerformed();
+        long allocated = allocatedBytes();
+        long gcCount = gcCount();
+        long gcTime = gcTime();
+
+        var text = new StringBuilder();
+        text.append(String.format("FPS %.1f   frame p95 %.1fms%n", frames / seconds,
+                frameTimes.percentile(0.95) / 1e6));
+        text.append(String.format("pulse %.2fms avg %.2fms max%n",
+                frames == 0 ? 0.0 : pulseTotal / 1e6 / frames, pulseMax / 1e6));
+        text.append(String.format("paints %.0f/s%n", (paints - paintsAtStart) / seconds));
+        if(threads != null) {
+            text.append(String.format("FX alloc %.2f MB/s%n", (allocated - allocatedAtStart) / seconds / (1024 * 1024)));
+        }
+        text.append(String.format("GC %d (%dms)%n", gcCount - gcCountAtStart, gcTime - gcTimeAtStart));
+        if(keyMax >= 0) {
+            text.append(String.format("key %.1fms max, p95 %.1fms", keyMax / 1e6, keyLatencies.percentile(0.95) / 1e6));
+        } else {
+            text.append(String.format("key p95 %.1fms", keyLatencies.percentile(0.95) / 1e6));
+        }
+        setText(text.toString());
+
+        startInterval(now);
+    }
+
+    /**
+     * Start a new update interval
+     * @param now the current time in nanoseconds
+     */
+    private void startInterval(long now) {
+        intervalStart = now;
+        frames = 0;
+        pulseTotal = 0;
+        pulseMax = 0;
+        keyMax = -1;
+        paintsAtStart = RepaintBatcher.getTotalPerformed();
+        allocatedAtStart = allocatedBytes();
+        gcCountAtStart = gcCount();
+        gcTimeAtStart = gcTime();
+    }
+
+    /**
+     * Get the memory allocated so far by the JavaFX thread
+     * @return bytes allocated, or 0 if it cannot be measured
+     */
+    private long allocatedBytes() {
+        return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Get the number of garbage collections so far
+     * @return collections
+     */
+    private long gcCount() {
+        long count = 0;
+        for(var collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Get the time spent in garbage collection so far
+     * @return time in milliseconds
+     */
+    private long gcTime() {
+        long time = 0;
+        for(var collector : collectors) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+
+    /**
+     * Write the histograms recorded this session to the perf directory, if anything was recorded
+     */
+    public void dump() {
+        if(frameTimes.getCount() == 0) return;
+        var directory = new File("perf");
+        var file = new File(directory, "hud-" + sessionStart + ".txt");
+        directory.mkdirs();
+        try (var out = new PrintWriter(new FileWriter(file))) {
+            out.printf("Session started %tc, written %tc%n", sessionStart, System.currentTimeMillis());
+            out.printf("Paints requested %d, performed %d%n", RepaintBatcher.getTotalRequested(),
+                    RepaintBatcher.getTotalPerformed());
+            frameTimes.write(out);
+            pulseTimes.write(out);
+            keyLatencies.write(out);
+            gcPauses.write(out);
+            logger.info("Written performance histograms to {}", file);
+        } catch (IOException e) {
+            logger.error("Could not write performance histograms: {}", e.getMessage());
+        }
+    }
+}
@@ -16,6 +16,11 @@ public class PieceBoard extends GameBoard {
    */
   private static final Logger logger = LogManager.getLogger(PieceBoard.class);
 
+  /**
+   * Whether the piece on display has a block in the centre, which is marked with a circle
+   */
+  private boolean centre;
+
   public PieceBoard(int cols, int rows, double width, double height,Boolean canHover) {
     super(cols, rows, width, height, canHover);
   }
@@ -34,17 +39,31 @@ public class PieceBoard extends GameBoard {
         for (int j = 0; j < blocks[0].length; j++) {
           if (blocks[i][j] >= 1) {
             this.grid.set(i, j, piece.getValue());
-            if (i == 1 && j == 1) {
-              this.getBlock(1, 1).addCircle();
-            }
           } else {
             this.grid.set(i, j, 0);
           }
         }
       }
+      this.grid.sync();
+      //Repaint the centre with the other changed blocks, so its circle is drawn after them
+      centre = blocks[1][1] >= 1;
+      requestPaint(1, 1);
   }
 
 
+  /**
+   * Paint a block whose paint was requested, marking the centre of the piece
+   * @param x column
+   * @param y row
+   */
+  @Override
+  protected void paintBlock(int x, int y) {
+    super.paintBlock(x, y);
+    if (centre && x == 1 && y == 1) {
+      getBlock(1, 1).addCircle();
+    }
+  }
+
 //  public  void printPattern(GamePiece piece) {
 //        var blocks = piece.getBlocks();
 //        for (int i = 0; i < blocks.length; i++) {
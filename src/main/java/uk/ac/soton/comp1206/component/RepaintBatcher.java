@@ -0,0 +1,157 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+import uk.ac.soton.comp1206.game.CellMask;
+
+import java.util.Arrays;
+
+/**
+ * A RepaintBatcher collects the blocks of a board which need painting and paints them together once per JavaFX pulse,
+ * so however many times a block changes during a move it is only painted once, just before the frame is drawn.
+ *
+ * The waiting blocks are kept as a list as well as a mask, so painting and forgetting them costs as much as the
+ * number of blocks waiting, not the size of the board.
+ *
+ * It counts the paints asked for and the paints actually done, for this board and across every board.
+ */
+public class RepaintBatcher {
+
+    /**
+     * Paints asked for across every board
+     */
+    private static long totalRequested;
+
+    /**
+     * Paints done across every board
+     */
+    private static long totalPerformed;
+
+    /**
+     * The blocks waiting to be painted, so each is only listed once
+     */
+    private final CellMask dirty;
+
+    /**
+     * The blocks waiting to be painted, as row-major indexes in the order they were asked for
+     */
+    private int[] waiting = new int[64];
+
+    /**
+     * The number of blocks waiting to be painted
+     */
+    private int waitingCount;
+
+    /**
+     * Paints a block
+     */
+    private final CellMask.Visitor painter;
+
+    /**
+     * Runs on the next pulse to paint the waiting blocks, and is stopped again straight away
+     */
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+
+    /**
+     * Whether the pulse timer is waiting to run
+     */
+    private boolean scheduled;
+
+    /**
+     * Paints asked for on this board
+     */
+    private long requested;
+
+    /**
+     * Paints done on this board
+     */
+    private long performed;
+
+    /**
+     * Create a batcher for a board
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param painter paints a block, given its column and row
+     */
+    public RepaintBatcher(int cols, int rows, CellMask.Visitor painter) {
+        this.dirty = new CellMask(cols, rows);
+        this.painter = painter;
+    }
+
+    /**
+     * Ask for a block to be painted on the next pulse
+     * @param x column
+     * @param y row
+     */
+    public void request(int x, int y) {
+        requested++;
+        totalRequested++;
+        if(!dirty.contains(x, y)) {
+            dirty.add(x, y);
+            if(waitingCount == waiting.length) {
+                waiting = Arrays.copyOf(waiting, waitingCount * 2);
+            }
+            waiting[waitingCount++] = y * dirty.getCols() + x;
+        }
+        if(!scheduled) {
+            scheduled = true;
+            pulse.start();
+        }
+    }
+
+    /**
+     * Paint every waiting block now
+     */
+    public void flush() {
+        if(scheduled) {
+            scheduled = false;
+            pulse.stop();
+        }
+        //Blocks asked for while painting are painted in this flush too
+        for(int i = 0; i < waitingCount; i++) {
+            int x = dirty.getX(waiting[i]);
+            int y = dirty.getY(waiting[i]);
+            dirty.remove(x, y);
+            performed++;
+            totalPerformed++;
+            painter.visit(x, y);
+        }
+        waitingCount = 0;
+    }
+
+    /**
+     * Get the number of paints asked for on this board
+     * @return paints requested
+     */
+    public long getRequested() {
+        return requested;
+    }
+
+    /**
+     * Get the number of paints done on this board
+     * @return paints performed
+     */
+    public long getPerformed() {
+        return performed;
+    }
+
+    /**
+     * Get the number of paints asked for across every board
+     * @return paints requested
+     */
+    public static long getTotalRequested() {
+        return totalRequested;
+    }
+
+    /**
+     * Get the number of paints done across every board
+     * @return paints performed
+     */
+    public static long getTotalPerformed() {
+        return totalPerformed;
+    }
+}
@@ -0,0 +1,141 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.transform.Scale;
+
+/**
+ * A ScaledCanvas is a Canvas which takes up a fixed size in the layout, but holds a pixel for every pixel it covers on
+ * the screen however much the GamePane around it is scaled. A plain Canvas holds one pixel per unit of layout, which
+ * the scaled window then stretches.
+ *
+ * The canvas is made larger by the pixel scale and shrunk back by a transform, and its graphics context is scaled to
+ * match, so it is drawn on using the size it takes up in the layout. It must be placed at the top left of its layout
+ * area, as layouts align it using its larger unscaled size.
+ */
+public class ScaledCanvas extends Canvas {
+
+    /**
+     * The width the canvas takes up in the layout
+     */
+    private final double layoutWidth;
+
+    /**
+     * The height the canvas takes up in the layout
+     */
+    private final double layoutHeight;
+
+    /**
+     * Shrinks the canvas back to its size in the layout
+     */
+    private final Scale shrink = new Scale(1, 1, 0, 0);
+
+    /**
+     * The number of pixels held for each unit of layout
+     */
+    private double pixelScale;
+
+    /**
+     * Create a canvas at the scale the block sprites are currently rendered at
+     * @param width the width the canvas takes up in the layout
+     * @param height the height the canvas takes up in the layout
+     */
+    public ScaledCanvas(double width, double height) {
+        this.layoutWidth = width;
+        this.layoutHeight = height;
+        getTransforms().add(shrink);
+        applyScale(BlockSprites.getScale());
+    }
+
+    /**
+     * Change the number of pixels held for each unit of layout. What was drawn is lost, so the canvas must be drawn
+     * again if the scale changed.
+     * @param scale the pixel scale
+     * @return true if the scale changed
+     */
+    public boolean setPixelScale(double scale) {
+        if(scale == pixelScale) return false;
+        applyScale(scale);
+        return true;
+    }
+
+    /**
+     * Get the number of pixels held for each unit of layout
+     * @return the pixel scale
+     */
+    public double getPixelScale() {
+        return pixelScale;
+    }
+
+    /**
+     * Size the canvas, its transform and its graphics context for a pixel scale
+     * @param scale the pixel scale
+     */
+    private void applyScale(double scale) {
+        pixelScale = scale;
+        setWidth(Math.ceil(layoutWidth * scale));
+        setHeight(Math.ceil(layoutHeight * scale));
+        shrink.setX(1 / scale);
+        shrink.setY(1 / scale);
+        getGraphicsContext2D().setTransform(scale, 0, 0, scale, 0, 0);
+    }
+
+    /**
+     * The canvas takes up its layout size, not its size in pixels
+     * @param height ignored
+     * @return the layout width
+     */
+    @Override
+    public double minWidth(double height) {
+        return layoutWidth;
+    }
+
+    /**
+     * The canvas takes up its layout size, not its size in pixels
+     * @param height ignored
+     * @return the layout width
+     */
+    @Override
+    public double prefWidth(double height) {
+        return layoutWidth;
+    }
+
+    /**
+     * The canvas takes up its layout size, not its size in pixels
+     * @param height ignored
+     * @return the layout width
+     */
+    @Override
+    public double maxWidth(double height) {
+        return layoutWidth;
+    }
+
+    /**
+     * The canvas takes up its layout size, not its size in pixels
+     * @param width ignored
+     * @return the layout height
+     */
+    @Override
+    public double minHeight(double width) {
+        return layoutHeight;
+    }
+
+    /**
+     * The canvas takes up its layout size, not its size in pixels
+     * @param width ignored
+     * @return the layout height
+     */
+    @Override
+    public double prefHeight(double width) {
+        return layoutHeight;
+    }
+
+    /**
+     * The canvas takes up its layout size, not its size in pixels
+     * @param width ignored
+     * @return the layout height
+     */
+    @Override
+    public double maxHeight(double width) {
+        return layoutHeight;
+    }
+}
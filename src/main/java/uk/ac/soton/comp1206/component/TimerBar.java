@@ -0,0 +1,98 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import uk.ac.soton.comp1206.game.GameClock;
+
+/**
+ * The TimerBar shows how much of the time to play the current piece has gone. It grows from nothing to its full width
+ * as the time runs out, changing from green to red.
+ *
+ * Every frame it reads the time left straight from the game clock, so it always matches the real deadline, however the
+ * deadline was restarted and whatever the level.
+ */
+public class TimerBar extends Rectangle {
+
+    /**
+     * The colours the bar passes through, evenly spaced from no time gone to all of it
+     */
+    private static final Color[] STOPS = {
+            Color.DARKGREEN, Color.LIGHTGREEN, Color.GREEN, Color.ORANGE, Color.RED, Color.DARKRED
+    };
+
+    /**
+     * The number of colours the bar is shaded with
+     */
+    private static final int SHADES = 100;
+
+    /**
+     * The colour of the bar for each share of the time gone, worked out once so no colour is made per frame
+     */
+    private static final Color[] PALETTE = new Color[SHADES + 1];
+
+    static {
+        for(int shade = 0; shade <= SHADES; shade++) {
+            double position = (double) shade / SHADES * (STOPS.length - 1);
+            int stop = Math.min((int) position, STOPS.length - 2);
+            PALETTE[shade] = STOPS[stop].interpolate(STOPS[stop + 1], position - stop);
+        }
+    }
+
+    /**
+     * The clock timing the current piece
+     */
+    private final GameClock clock;
+
+    /**
+     * The width of the bar when the time has run out
+     */
+    private final double fullWidth;
+
+    /**
+     * Updates the bar every frame while running
+     */
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            update();
+        }
+    };
+
+    /**
+     * Create a timer bar
+     * @param clock the clock timing the current piece
+     * @param fullWidth the width of the bar when the time has run out
+     * @param height the height of the bar
+     */
+    public TimerBar(GameClock clock, double fullWidth, double height) {
+        super(0, height, STOPS[0]);
+        this.clock = clock;
+        this.fullWidth = fullWidth;
+    }
+
+    /**
+     * Start following the clock
+     */
+    public void start() {
+        timer.start();
+    }
+
+    /**
+     * Stop following the clock, leaving the bar as it is
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Size and colour the bar for the time gone
+     */
+    private void update() {
+        long duration = clock.getDuration();
+        double gone = duration <= 0 ? 0 : 1.0 - (double) clock.getRemaining() / duration;
+        gone = Math.max(0, Math.min(1, gone));
+        setWidth(gone * fullWidth);
+        setFill(PALETTE[(int) Math.round(gone * SHADES)]);
+    }
+}
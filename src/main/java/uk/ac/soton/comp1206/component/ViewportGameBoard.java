@@ -0,0 +1,579 @@
+package uk.ac.soton.comp1206.component;
+
+import javafx.animation.AnimationTimer;
+import javafx.geometry.HPos;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.game.CellMask;
+import uk.ac.soton.comp1206.game.Grid;
+
+/**
+ * A ViewportGameBoard shows part of a grid which is too large to draw in full, such as a 1000 x 1000 endurance board.
+ * It draws on a single Canvas the size of the board component, and only the blocks inside the view are ever painted,
+ * so the cost of drawing depends on the size of the view and the zoom, not on the size of the grid.
+ *
+ * The view is moved by dragging with the left or middle mouse button, or by scrolling, and zoomed by scrolling with
+ * control held down. Highlighting a block from the keyboard moves the view to show it. Changes to blocks outside the
+ * view are not painted at all; they are drawn from the grid when the view reaches them.
+ *
+ * No GameBlock is kept for each block. Listeners are given small handles, drawn by this board, which are only made
+ * when a block is asked for; moving the mouse within the highlighted block creates nothing.
+ */
+public class ViewportGameBoard extends GameBoard {
+
+    private static final Logger logger = LogManager.getLogger(ViewportGameBoard.class);
+
+    /**
+     * The sizes a block can be zoomed to, in pixels, smallest first. Each has its own set of sprites.
+     */
+    private static final double[] BLOCK_SIZES = {4, 6, 8, 12, 16, 20, 24, 32, 48, 64, 80};
+
+    /**
+     * The size of a block when the board is first shown, if the whole grid does not fit at a larger size
+     */
+    private static final double DEFAULT_BLOCK_SIZE = 20;
+
+    /**
+     * The canvas the view is drawn on
+     */
+    private ScaledCanvas canvas;
+
+    /**
+     * The graphics context of the canvas
+     */
+    private GraphicsContext gc;
+
+    /**
+     * The size at which the whole grid fits in the view, or the smallest block size if it never does
+     */
+    private double fitSize;
+
+    /**
+     * The current size of each block, in pixels
+     */
+    private double blockSize;
+
+    /**
+     * The horizontal position in the whole board of the left edge of the view, in pixels
+     */
+    private double originX;
+
+    /**
+     * The vertical position in the whole board of the top edge of the view, in pixels
+     */
+    private double originY;
+
+    /**
+     * Where the mouse was when the view was last dragged
+     */
+    private double dragX;
+
+    /**
+     * Where the mouse was when the view was last dragged
+     */
+    private double dragY;
+
+    /**
+     * The handle last given out, given out again if the same block is asked for
+     */
+    private Handle lastHandle;
+
+    /**
+     * Whether the view is waiting to be drawn on the next pulse
+     */
+    private boolean viewScheduled;
+
+    /**
+     * Draws the view once on the next pulse after it moves, however many times it moved
+     */
+    private final AnimationTimer viewPulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            viewScheduled = false;
+            paintView();
+        }
+    };
+
+    /**
+     * Create a new ViewportGameBoard, based off a given grid, with a visual width and height.
+     * @param grid linked grid
+     * @param width the visual width of the view
+     * @param height the visual height of the view
+     * @param hoverON whether to highlight blocks under the mouse
+     */
+    public ViewportGameBoard(Grid grid, double width, double height, Boolean hoverON) {
+        super(grid, width, height, hoverON);
+    }
+
+    /**
+     * Build the board as a single canvas the size of the view, draw the blocks in view and start listening to the
+     * grid. Called by the GameBoard constructor, so fields are set here rather than where they are declared.
+     */
+    @Override
+    protected void build() {
+        setMaxWidth(width);
+        setMaxHeight(height);
+
+        fitSize = Math.max(BLOCK_SIZES[0], Math.floor(Math.min(width / cols, height / rows)));
+        blockSize = Math.max(fitSize, Math.min(DEFAULT_BLOCK_SIZE, BLOCK_SIZES[BLOCK_SIZES.length - 1]));
+        logger.info("Building viewport grid: {} x {}, blocks of {} pixels", cols, rows, blockSize);
+
+        canvas = new ScaledCanvas(width, height);
+        gc = canvas.getGraphicsContext2D();
+        add(canvas, 0, 0);
+        setHalignment(canvas, HPos.LEFT);
+        setValignment(canvas, VPos.TOP);
+
+        buildOverlay();
+        paintView();
+
+        grid.setOnBlockChanged((x, y, value) -> requestPaint(x, y));
+
+        canvas.setOnMousePressed(this::mousePressed);
+        canvas.setOnMouseDragged(this::mouseDragged);
+        canvas.setOnMouseMoved(this::mouseMoved);
+        canvas.setOnMouseExited((e) -> removeHighlight());
+        canvas.setOnMouseClicked(this::mouseClicked);
+        canvas.setOnScroll(this::scrolled);
+        this.setOnMouseClicked(this::boardRightClick);
+    }
+
+    /**
+     * Get the handle for a block, making one unless it is the block last asked for
+     * @param x column
+     * @param y row
+     * @return game block at the given column and row
+     */
+    @Override
+    public GameBlock getBlock(int x, int y) {
+        if(lastHandle == null || lastHandle.getX() != x || lastHandle.getY() != y) {
+            lastHandle = new Handle(x, y);
+        }
+        return lastHandle;
+    }
+
+    /**
+     * Ask for a block to be painted on the next pulse, if it is in view
+     * @param x column
+     * @param y row
+     */
+    @Override
+    public void requestPaint(int x, int y) {
+        if(inView(x, y)) {
+            super.requestPaint(x, y);
+        }
+    }
+
+    /**
+     * Fade out the cleared blocks which are in view. Blocks out of view are drawn as their values when the view
+     * reaches them, so the rest of the grid is never walked.
+     * @param clearedCells the blocks on which the fadeout animation should be called
+     */
+    @Override
+    public void fadeOut(CellMask clearedCells) {
+        fadeOut(clearedCells, firstColumn(), firstRow(), lastColumn(), lastRow());
+    }
+
+    /**
+     * Paint a block whose paint was requested, unless it is fading out or has left the view
+     * @param x column
+     * @param y row
+     */
+    @Override
+    protected void paintBlock(int x, int y) {
+        if(inView(x, y) && !isFading(x, y)) {
+            paintValue(x, y);
+        }
+    }
+
+    /**
+     * Paint one frame of the flash of a fading block, if it is in view
+     * @param x column
+     * @param y row
+     * @param opacity how strong the flash is, from 0 to 1
+     */
+    @Override
+    protected void paintFade(int x, int y, double opacity) {
+        if(inView(x, y)) {
+            GameBlock.paintFlash(gc, opacity, left(x), top(y), blockSize, blockSize);
+        }
+    }
+
+    /**
+     * Highlight a block, moving the view to show it first
+     * @param block the block to highlight
+     */
+    @Override
+    public void highlightBlock(GameBlock block) {
+        if(block != null) {
+            reveal(block.getX(), block.getY());
+        }
+        super.highlightBlock(block);
+    }
+
+    /**
+     * Move the view as little as needed to show a block and the blocks around it
+     * @param x column
+     * @param y row
+     */
+    public void reveal(int x, int y) {
+        double margin = blockSize;
+        double newX = originX;
+        double newY = originY;
+        if(x * blockSize - margin < newX) newX = x * blockSize - margin;
+        if((x + 1) * blockSize + margin > newX + width) newX = (x + 1) * blockSize + margin - width;
+        if(y * blockSize - margin < newY) newY = y * blockSize - margin;
+        if((y + 1) * blockSize + margin > newY + height) newY = (y + 1) * blockSize + margin - height;
+        moveView(newX, newY);
+    }
+
+    /**
+     * Move the view by a distance
+     * @param dx pixels to move right
+     * @param dy pixels to move down
+     */
+    public void pan(double dx, double dy) {
+        moveView(originX + dx, originY + dy);
+    }
+
+    /**
+     * Zoom in or out by a number of steps, keeping the point under the given position of the view where it is
+     * @param steps steps to zoom in, negative to zoom out
+     * @param anchorX horizontal position in the view to zoom around
+     * @param anchorY vertical position in the view to zoom around
+     */
+    public void zoom(int steps, double anchorX, double anchorY) {
+        int level = 0;
+        while(level < BLOCK_SIZES.length - 1 && BLOCK_SIZES[level] < blockSize) level++;
+        level = Math.max(0, Math.min(BLOCK_SIZES.length - 1, level + steps));
+        double size = Math.max(fitSize, BLOCK_SIZES[level]);
+        if(size == blockSize) return;
+
+        double scale = size / blockSize;
+        double newX = (originX + anchorX) * scale - anchorX;
+        double newY = (originY + anchorY) * scale - anchorY;
+        blockSize = size;
+        logger.debug("Zoomed to blocks of {} pixels", size);
+        moveView(newX, newY);
+        scheduleView();
+    }
+
+    /**
+     * Get the current size of each block
+     * @return the size in pixels
+     */
+    public double getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Move the view, keeping it on the board, and draw it on the next pulse if it moved
+     * @param newX the horizontal position in the whole board of the left edge of the view
+     * @param newY the vertical position in the whole board of the top edge of the view
+     */
+    private void moveView(double newX, double newY) {
+        newX = Math.round(Math.max(0, Math.min(newX, cols * blockSize - width)));
+        newY = Math.round(Math.max(0, Math.min(newY, rows * blockSize - height)));
+        if(newX == originX && newY == originY) return;
+        originX = newX;
+        originY = newY;
+        scheduleView();
+    }
+
+    /**
+     * Draw the view on the next pulse
+     */
+    private void scheduleView() {
+        if(!viewScheduled) {
+            viewScheduled = true;
+            viewPulse.start();
+        }
+    }
+
+    /**
+     * Draw every block in the view, and move the overlay to match
+     */
+    private void paintView() {
+        gc.clearRect(0, 0, width, height);
+        int firstX = firstColumn();
+        int lastX = lastColumn();
+        int lastY = lastRow();
+        for(int y = firstRow(); y <= lastY; y++) {
+            for(int x = firstX; x <= lastX; x++) {
+                if(!isFading(x, y)) {
+                    paintValue(x, y);
+                }
+            }
+        }
+        var overlay = getOverlay();
+        if(overlay != null) {
+            overlay.setView(originX, originY, blockSize, blockSize);
+        }
+    }
+
+    /**
+     * Get the first column with any of it in the view
+     * @return column
+     */
+    private int firstColumn() {
+        return (int) (originX / blockSize);
+    }
+
+    /**
+     * Get the first row with any of it in the view
+     * @return row
+     */
+    private int firstRow() {
+        return (int) (originY / blockSize);
+    }
+
+    /**
+     * Get the last column with any of it in the view
+     * @return column
+     */
+    private int lastColumn() {
+        return Math.min(cols - 1, (int) ((originX + width) / blockSize));
+    }
+
+    /**
+     * Get the last row with any of it in the view
+     * @return row
+     */
+    private int lastRow() {
+        return Math.min(rows - 1, (int) ((originY + height) / blockSize));
+    }
+
+    /**
+     * Check if any of a block is in the view
+     * @param x column
+     * @param y row
+     * @return true if it is in view
+     */
+    private boolean inView(int x, int y) {
+        double left = left(x);
+        double top = top(y);
+        return left + blockSize > 0 && left < width && top + blockSize > 0 && top < height;
+    }
+
+    /**
+     * Get the left edge of a column in the view
+     * @param x column
+     * @return the position
+     */
+    private double left(int x) {
+        return x * blockSize - originX;
+    }
+
+    /**
+     * Get the top edge of a row in the view
+     * @param y row
+     * @return the position
+     */
+    private double top(int y) {
+        return y * blockSize - originY;
+    }
+
+    /**
+     * Paint a block as its value in the grid
+     * @param x column
+     * @param y row
+     */
+    private void paintValue(int x, int y) {
+        GameBlock.paintBlock(gc, grid.get(x, y), left(x), top(y), blockSize, blockSize);
+    }
+
+    /**
+     * Hold a pixel for every pixel the view covers on the screen at a new window scale, drawing the view again if the
+     * scale changed
+     * @param scale the scale the window has settled at
+     */
+    @Override
+    public void setPixelScale(double scale) {
+        if(canvas.setPixelScale(scale)) {
+            paintView();
+        }
+    }
+
+    /**
+     * Turn a position on the canvas, which holds more pixels than it takes up, into a position in the view
+     * @param position the position in the pixels of the canvas
+     * @return the position in the view
+     */
+    private double toView(double position) {
+        return position / canvas.getPixelScale();
+    }
+
+    /**
+     * Find the column under a point of the view
+     * @param event the mouse event
+     * @return the column, which may be off the board
+     */
+    private int columnAt(MouseEvent event) {
+        return (int) Math.floor((toView(event.getX()) + originX) / blockSize);
+    }
+
+    /**
+     * Find the row under a point of the view
+     * @param event the mouse event
+     * @return the row, which may be off the board
+     */
+    private int rowAt(MouseEvent event) {
+        return (int) Math.floor((toView(event.getY()) + originY) / blockSize);
+    }
+
+    /**
+     * Find the block under a point of the view
+     * @param event the mouse event
+     * @return the block, or null if the point is outside the board
+     */
+    private GameBlock blockAt(MouseEvent event) {
+        int x = columnAt(event);
+        int y = rowAt(event);
+        if(x < 0 || y < 0 || x >= cols || y >= rows) return null;
+        return getBlock(x, y);
+    }
+
+    /**
+     * Remember where a drag of the view starts
+     * @param event the mouse event
+     */
+    private void mousePressed(MouseEvent event) {
+        dragX = toView(event.getX());
+        dragY = toView(event.getY());
+    }
+
+    /**
+     * Move the view with the mouse while the left or middle button is held down
+     * @param event the mouse event
+     */
+    private void mouseDragged(MouseEvent event) {
+        if(event.getButton() != MouseButton.PRIMARY && event.getButton() != MouseButton.MIDDLE) return;
+        double x = toView(event.getX());
+        double y = toView(event.getY());
+        pan(dragX - x, dragY - y);
+        dragX = x;
+        dragY = y;
+    }
+
+    /**
+     * Highlight the block under the mouse, without moving the view
+     * @param event the mouse event
+     */
+    private void mouseMoved(MouseEvent event) {
+        int x = columnAt(event);
+        int y = rowAt(event);
+        var overlay = getOverlay();
+        if(x < 0 || y < 0 || x >= cols || y >= rows) {
+            removeHighlight();
+        } else if(overlay == null || !overlay.isShown() || overlay.getShownX() != x || overlay.getShownY() != y) {
+            super.highlightBlock(getBlock(x, y));
+        }
+    }
+
+    /**
+     * Pass a click on a block to the block clicked listener, unless the mouse was dragged to move the view
+     * @param event the mouse event
+     */
+    private void mouseClicked(MouseEvent event) {
+        if(!event.isStillSincePress()) return;
+        var block = blockAt(event);
+        if(block == null) return;
+        if(event.getButton() == MouseButton.PRIMARY) {
+            removeHighlight();
+        }
+        blockClicked(event, block);
+    }
+
+    /**
+     * Zoom around the mouse when control is held down, otherwise move the view
+     * @param event the scroll event
+     */
+    private void scrolled(ScrollEvent event) {
+        if(event.isControlDown()) {
+            if(event.getDeltaY() != 0) {
+                zoom(event.getDeltaY() > 0 ? 1 : -1, toView(event.getX()), toView(event.getY()));
+            }
+        } else {
+            pan(-event.getDeltaX(), -event.getDeltaY());
+        }
+        event.consume();
+    }
+
+    /**
+     * The block of a ViewportGameBoard which listeners are given. It has no canvas of its own, everything it is asked to
+     * paint is drawn on the board instead, if it is in view.
+     */
+    private class Handle extends GameBlock {
+
+        /**
+         * Create a handle for a block
+         * @param x column
+         * @param y row
+         */
+        Handle(int x, int y) {
+            super(ViewportGameBoard.this, x, y);
+        }
+
+        /**
+         * Highlight this block on the board
+         */
+        @Override
+        public void highlight() {
+            if(inView(getX(), getY())) {
+                GameBlock.paintHighlight(gc, left(getX()), top(getY()), blockSize, blockSize);
+            }
+        }
+
+        /**
+         * Draw this block on the board without a highlight
+         */
+        @Override
+        public void clearHighlight() {
+            paint();
+        }
+
+        /**
+         * Draw this block on the board as its value in the grid
+         */
+        @Override
+        public void paint() {
+            if(inView(getX(), getY())) {
+                paintValue(getX(), getY());
+            }
+        }
+
+        /**
+         * Mark this block as the centre of a piece
+         */
+        @Override
+        public void addCircle() {
+            if(inView(getX(), getY())) {
+                GameBlock.paintCircle(gc, left(getX()), top(getY()), blockSize, blockSize);
+            }
+        }
+
+        /**
+         * Get the value of this block in the grid
+         * @return value
+         */
+        @Override
+        public int getValue() {
+            return grid.get(getX(), getY());
+        }
+
+        /**
+         * Describe the block this handle stands for
+         * @return the column, row and value
+         */
+        @Override
+        public String toString() {
+            return "GameBlock{x=" + getX() + ", y=" + getY() + ", value=" + getValue() + '}';
+        }
+    }
+}
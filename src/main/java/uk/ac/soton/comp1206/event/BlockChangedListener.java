@@ -0,0 +1,16 @@
+package uk.ac.soton.comp1206.event;
+
+/**
+ * The BlockChangedListener is used to listen for blocks of a Grid changing value, for displays which draw the grid
+ * themselves rather than binding to its properties.
+ */
+public interface BlockChangedListener {
+
+  /**
+   * Called for each block which has changed when the grid is synced
+   * @param x column
+   * @param y row
+   * @param value the new value of the block
+   */
+  public void blockChanged(int x, int y, int value);
+}
@@ -0,0 +1,80 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.game.CellMask;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+/**
+ * The GameEventListener is used to listen to everything that happens inside a GameEngine. Every method does nothing
+ * by default, so a listener only needs to implement the events it is interested in.
+ */
+public interface GameEventListener {
+
+  /**
+   * Called when the current and following pieces have moved on to new pieces
+   * @param piece the new current piece
+   * @param followingPiece the new following piece
+   */
+  public default void nextPiece(GamePiece piece, GamePiece followingPiece) {
+  }
+
+  /**
+   * Called when a piece has been placed on the grid
+   * @param piece the piece that was placed
+   * @param x the x placement on the grid
+   * @param y the y placement on the grid
+   */
+  public default void piecePlaced(GamePiece piece, int x, int y) {
+  }
+
+  /**
+   * Called when the player tried to place a piece where it does not fit
+   * @param piece the piece that could not be placed
+   * @param x the x placement on the grid
+   * @param y the y placement on the grid
+   */
+  public default void placementRejected(GamePiece piece, int x, int y) {
+  }
+
+  /**
+   * Called when the current piece has been rotated
+   * @param piece the rotated current piece
+   */
+  public default void pieceRotated(GamePiece piece) {
+  }
+
+  /**
+   * Called when the current and following piece have been swapped
+   * @param piece the new current piece
+   * @param followingPiece the new following piece
+   */
+  public default void piecesSwapped(GamePiece piece, GamePiece followingPiece) {
+  }
+
+  /**
+   * Called when lines are completed, before the blocks are removed from the grid. The mask is reused by the engine
+   * and is only valid during the call.
+   * @param clearedCells the blocks to clear
+   * @param lines the number of lines completed
+   */
+  public default void linesCleared(CellMask clearedCells, int lines) {
+  }
+
+  /**
+   * Called when a life has been lost because the piece was not played in time
+   * @param lives the lives left
+   */
+  public default void lifeLost(int lives) {
+  }
+
+  /**
+   * Called once when the player has run out of lives
+   */
+  public default void gameOver() {
+  }
+
+  /**
+   * Called once at the end of every action which changed the game state, such as the score or the grid
+   */
+  public default void stateChanged() {
+  }
+}
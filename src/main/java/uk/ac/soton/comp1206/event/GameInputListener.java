@@ -0,0 +1,36 @@
+package uk.ac.soton.comp1206.event;
+
+/**
+ * The GameInputListener is told about every input given to a GameEngine, before the engine acts on it. Together with
+ * the seed of the game, the inputs are enough to play the game again exactly.
+ */
+public interface GameInputListener {
+
+  /**
+   * Called when the player tries to place the current piece, whether or not it fits
+   * @param x column
+   * @param y row
+   */
+  public void placeRequested(int x, int y);
+
+  /**
+   * Called when the player rotates the current piece
+   * @param rotations number of rotations
+   */
+  public void rotateRequested(int rotations);
+
+  /**
+   * Called when the player swaps the current and following pieces
+   */
+  public void swapRequested();
+
+  /**
+   * Called when the player tries to skip the current piece, whether or not there are skips left
+   */
+  public void skipRequested();
+
+  /**
+   * Called when the player runs out of time to play the current piece
+   */
+  public void timeoutReached();
+}
@@ -0,0 +1,12 @@
+package uk.ac.soton.comp1206.event;
+
+/**
+ * The GameOverListener is used to notify when the player has run out of lives and the game has ended.
+ */
+public interface GameOverListener {
+
+  /**
+   * Called once when the game is over
+   */
+  public void gameOver();
+}
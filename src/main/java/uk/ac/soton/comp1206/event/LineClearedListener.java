@@ -1,8 +1,6 @@
 package uk.ac.soton.comp1206.event;
 
-import uk.ac.soton.comp1206.component.GameBlockCoordinate;
-
-import java.util.HashSet;
+import uk.ac.soton.comp1206.game.CellMask;
 
 /**
  * The LineClearedListener is used to listen when lines are cleared in the game grid.
@@ -10,9 +8,9 @@ import java.util.HashSet;
 public interface LineClearedListener {
 
   /**
-   * Used when multiple gameBlocks are cleared
-   * @param coordinateHashSet contains coordinates of the blocks to clear
+   * Used when multiple gameBlocks are cleared. The mask is reused by the game and is only valid during the call.
+   * @param clearedCells the blocks to clear
    */
-  public void linesCleared(HashSet<GameBlockCoordinate> coordinateHashSet);
+  public void linesCleared(CellMask clearedCells);
 
   }
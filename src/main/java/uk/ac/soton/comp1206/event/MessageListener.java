@@ -0,0 +1,15 @@
+package uk.ac.soton.comp1206.event;
+
+import uk.ac.soton.comp1206.network.Message;
+
+/**
+ * The Message Listener is used for listening to messages received by the communicator, once they have been decoded.
+ */
+public interface MessageListener {
+
+    /**
+     * Handle an incoming message received by the Communicator
+     * @param message the decoded message
+     */
+    public void receiveMessage(Message message);
+}
@@ -0,0 +1,14 @@
+package uk.ac.soton.comp1206.event;
+
+/**
+ * The ScaleChangedListener is used to listen for the scale of a GamePane settling after the window has been resized,
+ * so anything drawn at a particular size can be drawn again once rather than on every step of the resize.
+ */
+public interface ScaleChangedListener {
+
+  /**
+   * Called once the window has stopped being resized and the scale has changed
+   * @param scalar the new scale
+   */
+  public void scaleChanged(double scalar);
+}
@@ -0,0 +1,213 @@
+package uk.ac.soton.comp1206.game;
+
+import java.util.Arrays;
+
+/**
+ * A CellMask is a set of blocks in a grid, held as one bit per block in row-major order (index = y * cols + x).
+ *
+ * It is meant to be kept and reused rather than created for every move. The blocks in it can be walked without
+ * creating any objects, either with {@link #nextIndex(int)} or with a {@link Visitor}.
+ */
+public class CellMask {
+
+    /**
+     * Visits the blocks in a CellMask
+     */
+    public interface Visitor {
+
+        /**
+         * Called for each block in the mask
+         * @param x column
+         * @param y row
+         */
+        public void visit(int x, int y);
+    }
+
+    /**
+     * The number of columns in the grid
+     */
+    private final int cols;
+
+    /**
+     * The number of rows in the grid
+     */
+    private final int rows;
+
+    /**
+     * The bits, bit (y * cols + x) is set when block x,y is in the mask
+     */
+    private final long[] bits;
+
+    /**
+     * Create a new empty mask for a grid of the given size
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public CellMask(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.bits = new long[(cols * rows + 63) >>> 6];
+    }
+
+    /**
+     * Add a block to the mask
+     * @param x column
+     * @param y row
+     */
+    public void add(int x, int y) {
+        int index = y * cols + x;
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Add every block in a row to the mask
+     * @param y row
+     */
+    public void addRow(int y) {
+        for(int x = 0; x < cols; x++) {
+            add(x, y);
+        }
+    }
+
+    /**
+     * Add blocks from a row given as a bitmask, bit x is set to add block x,y. Only the first cols bits are used.
+     * @param y row
+     * @param rowBits the blocks to add
+     */
+    public void addRowBits(int y, long rowBits) {
+        if(cols < 64) rowBits &= (1L << cols) - 1;
+        if(rowBits == 0) return;
+        int index = y * cols;
+        int word = index >>> 6;
+        int shift = index & 63;
+        bits[word] |= rowBits << shift;
+        if(shift != 0 && shift + cols > 64) {
+            bits[word + 1] |= rowBits >>> (64 - shift);
+        }
+    }
+
+    /**
+     * Add every block in a column to the mask
+     * @param x column
+     */
+    public void addColumn(int x) {
+        for(int y = 0; y < rows; y++) {
+            add(x, y);
+        }
+    }
+
+    /**
+     * Remove a block from the mask
+     * @param x column
+     * @param y row
+     */
+    public void remove(int x, int y) {
+        int index = y * cols + x;
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Check if a block is in the mask
+     * @param x column
+     * @param y row
+     * @return true if the block is in the mask
+     */
+    public boolean contains(int x, int y) {
+        if(x < 0 || y < 0 || x >= cols || y >= rows) return false;
+        int index = y * cols + x;
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Remove every block from the mask
+     */
+    public void clear() {
+        Arrays.fill(bits, 0);
+    }
+
+    /**
+     * Get the number of blocks in the mask
+     * @return the number of blocks
+     */
+    public int size() {
+        int size = 0;
+        for(long word : bits) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * Check if the mask has no blocks in it
+     * @return true if the mask is empty
+     */
+    public boolean isEmpty() {
+        for(long word : bits) {
+            if(word != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Find the first block in the mask at or after the given index
+     * @param from the index to start from
+     * @return the index of the block, or -1 if there are no more
+     */
+    public int nextIndex(int from) {
+        if(from < 0) from = 0;
+        int word = from >>> 6;
+        if(word >= bits.length) return -1;
+        long remaining = bits[word] & (-1L << from);
+        while(true) {
+            if(remaining != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(remaining);
+            }
+            if(++word == bits.length) return -1;
+            remaining = bits[word];
+        }
+    }
+
+    /**
+     * Get the column of a block index
+     * @param index the index of the block
+     * @return column
+     */
+    public int getX(int index) {
+        return index % cols;
+    }
+
+    /**
+     * Get the row of a block index
+     * @param index the index of the block
+     * @return row
+     */
+    public int getY(int index) {
+        return index / cols;
+    }
+
+    /**
+     * Visit every block in the mask, in row-major order
+     * @param visitor called with the column and row of each block
+     */
+    public void forEach(Visitor visitor) {
+        for(int index = nextIndex(0); index >= 0; index = nextIndex(index + 1)) {
+            visitor.visit(index % cols, index / cols);
+        }
+    }
+
+    /**
+     * Get the number of columns in the grid this mask covers
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows in the grid this mask covers
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+}
@@ -1,41 +1,37 @@
 package uk.ac.soton.comp1206.game;
 
-import javafx.beans.property.IntegerProperty;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.scene.control.ScrollPane;
-import javafx.scene.input.KeyCode;
-import javafx.scene.input.KeyEvent;
 import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.Media.Multimedia;
 import uk.ac.soton.comp1206.component.GameBlock;
-import uk.ac.soton.comp1206.component.GameBlockCoordinate;
-import uk.ac.soton.comp1206.event.GameLoopListener;
+import uk.ac.soton.comp1206.event.GameEventListener;
+import uk.ac.soton.comp1206.event.GameOverListener;
 import uk.ac.soton.comp1206.event.LineClearedListener;
 import uk.ac.soton.comp1206.event.NextPieceListener;
+import uk.ac.soton.comp1206.replay.ReplayStore;
+import uk.ac.soton.comp1206.replay.ReplayWriter;
 
+import java.io.IOException;
 import java.util.*;
 
-import static javafx.scene.input.KeyCode.*;
-import static javafx.scene.input.KeyCode.D;
-
 /**
  * The Game class handles the main logic, state and properties of the TetrECS game. Methods to manipulate the game state
  * and to handle actions made by the player should take place inside this class.
+ *
+ * The rules themselves live in a GameEngine. The Game drives the engine from the UI and a GameClock, and turns what
+ * the engine reports into properties the scenes can bind to, sounds and the listeners used by the scenes.
  */
-public class Game  {
+public class Game implements GameEventListener {
 
     /**
      * used to log progress on terminal
      */
     private static final Logger logger = LogManager.getLogger(Game.class);
 
-    /**
-     * Used to generate random numbers
-     */
-    private final Random random = new Random();
-
     /**
      * Number of rows
      */
@@ -47,20 +43,14 @@ public class Game  {
     protected final int cols;
 
     /**
-     * The grid model linked to the game
+     * The engine holding the rules and state of this game
      */
-    protected final Grid grid;
-
-    /***
-     * CurrentPiece to be played.
-     */
-    protected static GamePiece currentPiece;
-
+    protected final GameEngine engine;
 
     /**
-     * The followingPiece to be displayed
+     * The grid model linked to the game
      */
-    protected static GamePiece followingPiece;
+    protected final Grid grid;
 
     /**
      *the instance of NextPieceListener listens for when the next Piece is ready.
@@ -76,49 +66,49 @@ public class Game  {
     /***
      * Users current score
      */
-    private static SimpleIntegerProperty score;
+    private final SimpleIntegerProperty score = new SimpleIntegerProperty(0);
 
 
     /***
      * level user is on
      */
-    private static SimpleIntegerProperty level;
+    private final SimpleIntegerProperty level = new SimpleIntegerProperty(0);
 
 
     /***
      * Current lives of the user
      */
-    private static SimpleIntegerProperty lives;
+    private final SimpleIntegerProperty lives = new SimpleIntegerProperty(GameEngine.STARTING_LIVES);
 
     /***
      * Current multiplier
      */
-    private static SimpleIntegerProperty multiplier;
+    private final SimpleIntegerProperty multiplier = new SimpleIntegerProperty(1);
+
     /**
-     * boolean to check the end
+     * Skips remaining
      */
-    protected boolean end = false;
+    private final SimpleIntegerProperty skips = new SimpleIntegerProperty(GameEngine.STARTING_SKIPS);
 
     /**
-     * GameLoop listener to listen for gameLoop
+     * boolean to check the end
      */
-    private GameLoopListener gameLoopListner;
+    protected boolean end = false;
 
     /**
-     * The timer instance is used to initialize a timerTask
+     * The listener to notify when the game is over
      */
-    protected Timer timer;
+    private GameOverListener gameOverListener;
 
     /**
-     * Boolean to verify if the next piece has been played
+     * Times how long the player has left to play the current piece. Expiry is handled on the JavaFX thread.
      */
-    protected boolean blockPlayed = false;
-
+    protected final GameClock clock = new GameClock(Platform::runLater);
 
     /**
-     * Skip the current piece
+     * Records the inputs of this game so it can be played again, null if not recording
      */
-    private static SimpleIntegerProperty skips;
+    private ReplayWriter replay;
 
 
     /**
@@ -129,15 +119,11 @@ public class Game  {
     public Game(int cols, int rows) {
         this.cols = cols;
         this.rows = rows;
-        score = new SimpleIntegerProperty(0);
-        level = new SimpleIntegerProperty(0);
-        lives = new SimpleIntegerProperty(3);
-        multiplier = new SimpleIntegerProperty(1);
-        skips = new SimpleIntegerProperty(3);
-
 
-        //Create a new grid model to represent the game state
-        this.grid = new Grid(cols,rows);
+        //Create a new engine, and with it the grid model to represent the game state
+        this.engine = new GameEngine(cols, rows);
+        this.engine.setListener(this);
+        this.grid = engine.getGrid();
     }
 
 
@@ -154,11 +140,7 @@ public class Game  {
      * Method to swap the current and the following piece
      */
     public void swapCurrentPiece() {
-        var tempGamePiece = followingPiece;
-        followingPiece = currentPiece;
-        currentPiece = (tempGamePiece);
-        Multimedia.playAudio("pling.wav");
-        callToListener();
+        engine.swap();
     }
 
 
@@ -166,7 +148,9 @@ public class Game  {
      * Call to the listener to update the piece to display in the scene
      */
     public void callToListener() {
-        if(nextPieceListener != null) {
+        var currentPiece = engine.getCurrentPiece();
+        var followingPiece = engine.getFollowingPiece();
+        if(nextPieceListener != null && currentPiece != null && followingPiece != null) {
             nextPieceListener.nextPiece(currentPiece, followingPiece);
         }
     }
@@ -175,22 +159,9 @@ public class Game  {
      * method to rotate the current Piece
      */
     public void rotateCurrentPiece()  {
-         currentPiece.rotate(1);
-        Multimedia.playAudio("rotate.wav");
-        callToListener();
+        engine.rotate(1);
     }
 
-
-//    public  void printPattern(GamePiece piece) {
-//            for (int[] row :piece.getBlocks()) {
-//                for (int element : row) {
-//                    System.out.print(element + " ");
-//                }
-//                System.out.println(); // Move to the next line after printing each row
-//            }
-//
-//    }
-
     /**
      *  Sets the listener to notify for when the next piece is ready
      * @param listener The nextPieceListener to be set as a listener
@@ -199,87 +170,6 @@ public class Game  {
         logger.debug("2: Set as the listener {}", listener);
         this.nextPieceListener = listener;
     }
-    /***
-     * This method calls the next piece
-     */
-    public void nextPiece() {
-        currentPiece = (followingPiece); // Update currentPiece with nextPiece
-        followingPiece = spawmPiece(); // Generate a new nextPiece
-        logger.info("next Piece is : {}", currentPiece);
-        logger.info("Next to Next Piece is: {}", followingPiece);
-        if(nextPieceListener != null) {
-            nextPieceListener.nextPiece(currentPiece, followingPiece);
-        }
-    }
-    /***
-     * This method implements the action for what should happen after a piece is played
-     */
-    public int[] afterPiece() {
-        HashSet<GameBlockCoordinate> coordinateHashSet = new HashSet<>();
-        int[] data = new int[2];
-        int linesToClear = 0;
-        linesToClear += extracted1(coordinateHashSet);
-
-        linesToClear += extracted(coordinateHashSet);
-
-        data[0] = linesToClear;
-        data[1] = coordinateHashSet.size();
-        clearRows(coordinateHashSet, data[0]);
-
-        return data;
-    }
-
-    /***
-     * This method checks for any horizontal lines to clear
-     * @param coordinateHashSet contains all the blocks to clear
-     */
-    private int extracted1(HashSet<GameBlockCoordinate> coordinateHashSet) {
-        int numLinesToClear = 0;
-        outer: for(int rows = 0; rows < grid.getRows(); rows++) {
-            ArrayList<IntegerProperty> lineProperties = new ArrayList<>();
-             for(int cols = 0; cols < grid.getCols(); cols++) {
-                int val = grid.get(cols,rows);
-                if(val == 0 || val == -1) {
-                    continue outer;
-                } else {
-                    lineProperties.add(grid.getGridProperty(cols,rows));
-                }
-            }
-            if(lineProperties.size() == 5) {
-                numLinesToClear++;
-                for (int col = 0; col < grid.getCols(); col++)
-                    coordinateHashSet.add(new GameBlockCoordinate(col,rows));
-
-            }
-        }
-        return numLinesToClear;
-    }
-
-    /***
-     * The method checks vertical lines to clear
-     * @param coordinateHashSet contains all the blocks to clear
-     */
-    private int extracted(HashSet<GameBlockCoordinate> coordinateHashSet) {
-        int numLinesToClear = 0;
-        outer: for (int cols = 0; cols< grid.getCols(); cols++) {
-            ArrayList<IntegerProperty> lineProperties = new ArrayList<>();
-             for (int row = 0; row < grid.getRows(); row++){
-                int val = grid.get(cols,row);
-                if(val == 0 || val == -1) {
-                    continue outer;
-                  } else {
-                    lineProperties.add(grid.getGridProperty(cols,row));
-                 }
-              }
-            if(lineProperties.size() == 5) {
-                numLinesToClear++;
-                for (int row = 0; row < grid.getRows(); row++)
-                    coordinateHashSet.add(new GameBlockCoordinate(cols,row));
-             }
-            }
-            return numLinesToClear;
-    }
-
 
     /**
      * Sets the listener to notify for when Lines are cleared from the game grid
@@ -289,47 +179,14 @@ public class Game  {
         this.lineClearedListener = lineClearedListener;
     }
 
-    /**
-     * This method clears all the blocks
-     * @param coordinateHashSet contains all the blocks to clear
-     */
-    private void clearRows(HashSet<GameBlockCoordinate> coordinateHashSet, int numLinesToClear) {
-        if(lineClearedListener != null) {
-            lineClearedListener.linesCleared(coordinateHashSet);
-        }
-        if(!(numLinesToClear > 0)) return;
-        Iterator<GameBlockCoordinate> iterator = coordinateHashSet.iterator();
-        while (iterator.hasNext()){
-            GameBlockCoordinate gameBlockCoordinate = iterator.next();
-            grid.set(gameBlockCoordinate.getX(), gameBlockCoordinate.getY(),0);
-            iterator.remove();
-        }
-            Multimedia.playAudio("clear.wav");
-
-    }
-
-
-    /**
-     * Picks a random piece from the GamePiece class to play
-     * @return the piece that is to be played
-     */
-    public GamePiece spawmPiece() {
-
-        var maxPieces = GamePiece.PIECES;
-        var randomNumForPiece = random.nextInt(maxPieces);
-        logger.info("Picking a random piece: {}", randomNumForPiece);
-        var randomPiece = GamePiece.createPiece(randomNumForPiece);
-        return randomPiece;
-    }
     /**
      * Initialise a new game and set up anything that needs to be done at the start
      */
     public void initialiseGame() {
         if(!end) {
             logger.info("Initialising game");
-            Multimedia.backgroundMusicPlayer("game.wav");
-            followingPiece = followingPiece();
-            nextPiece();
+            startRecording();
+            engine.start();
         }
     }
 
@@ -341,88 +198,143 @@ public class Game  {
         if(end) return false;
         logger.info("next Play");
         //Get the position of this block
-        int x = gameBlock.getX();
-        int y = gameBlock.getY();
-        int[] data;
-        if(grid.canPlayPiece(currentPiece, x ,y)) return playingPiece(x, y);
-        else {
-            //Cant place the piece
-            Multimedia.playAudio("fail.wav");
-            return false;
-        }
+        return playingPiece(gameBlock.getX(), gameBlock.getY());
     }
 
     /**
-     * This method executes the steps for what should happen if the block can be played
+     * This method tries to play the current piece and restarts the timer if it was played
      * @param x x coordinate of where the block is to be played
      * @param y y coordinate of where the block is to be played
      * @return returns if the block has been played
      */
     protected boolean playingPiece(int x, int y) {
-        int[] data;
-        blockPlayed = true;
-        timer.cancel();
+        if(!engine.place(x, y)) {
+            //Cant place the piece
+            return false;
+        }
         startTimer();
-        //can place a piece
-        grid.playPiece(currentPiece, x, y);
-        Multimedia.playAudio("place.wav");
-        nextPiece();
-        data = afterPiece();
-        score(data[0],data[1]);
-        updateMultiplier(data[0]);
-        updateLevel();
-//            newTimer();
         return true;
     }
 
-    /***
-     * This method updates the score.
+    /**
+     * Play the sound for a placed piece
+     * @param piece the piece that was placed
+     * @param x the x placement on the grid
+     * @param y the y placement on the grid
      */
-    protected void updateLevel() {
-        int points = getScore();
-        int levelToSet  = points / 1000;
-        Game.level.set(levelToSet);
+    @Override
+    public void piecePlaced(GamePiece piece, int x, int y) {
+        Multimedia.playAudio("place.wav");
     }
 
-    /***
-     *This method checks the conditions to change the multiplier and does it if necessary.
-     * @param numLinesToClear number of lines to clear as of the current play.
+    /**
+     * Play the sound for a piece which does not fit
+     * @param piece the piece that could not be placed
+     * @param x the x placement on the grid
+     * @param y the y placement on the grid
      */
-    protected void updateMultiplier(int numLinesToClear) {
-        if(numLinesToClear > 0) {
-            incrementMultiplier();
-        }
-        if(numLinesToClear == 0){
-            resetMultiplier();
-        }
+    @Override
+    public void placementRejected(GamePiece piece, int x, int y) {
+        Multimedia.playAudio("fail.wav");
+    }
 
+    /**
+     * Play the rotate sound and show the rotated piece
+     * @param piece the rotated current piece
+     */
+    @Override
+    public void pieceRotated(GamePiece piece) {
+        Multimedia.playAudio("rotate.wav");
+        callToListener();
     }
 
-    /***
-     * This calculates the score of the game after everyplay.
-     * @param numberOfLines number of lines to clear
-     * @param numberOfBlocks number of blocks to clear
-     */
-    public void score (int numberOfLines, int numberOfBlocks) {
-        if(numberOfLines != 0) {
-            int previousScore = getScore();
-            int scoreToSet = numberOfLines * numberOfBlocks * 10 * multiplierProperty().get();
-            setScore(scoreToSet + previousScore);
+    /**
+     * Play the swap sound and show the swapped pieces
+     * @param piece the new current piece
+     * @param followingPiece the new following piece
+     */
+    @Override
+    public void piecesSwapped(GamePiece piece, GamePiece followingPiece) {
+        Multimedia.playAudio("pling.wav");
+        callToListener();
+    }
+
+    /**
+     * Show the next pieces
+     * @param piece the new current piece
+     * @param followingPiece the new following piece
+     */
+    @Override
+    public void nextPiece(GamePiece piece, GamePiece followingPiece) {
+        logger.info("next Piece is : {}", piece);
+        logger.info("Next to Next Piece is: {}", followingPiece);
+        callToListener();
+    }
+
+    /**
+     * Pass the cleared blocks on to the scene and play the clear sound
+     * @param clearedCells the blocks to clear
+     * @param lines the number of lines completed
+     */
+    @Override
+    public void linesCleared(CellMask clearedCells, int lines) {
+        if(lineClearedListener != null) {
+            lineClearedListener.linesCleared(clearedCells);
         }
-     }
+        Multimedia.playAudio("clear.wav");
+    }
+
+    /**
+     * Finish the replay with the final state of the game, and tell the listener the game is over once the move which
+     * ended it has finished
+     */
+    @Override
+    public void gameOver() {
+        finishRecording();
+        if(gameOverListener != null) {
+            Platform.runLater(gameOverListener::gameOver);
+        }
+    }
+
+    /**
+     * Play the sound for a lost life
+     * @param lives the lives left
+     */
+    @Override
+    public void lifeLost(int lives) {
+        logger.debug("Current Life is: {}", lives);
+        Multimedia.playAudio("lifelose.wav");
+    }
 
-//    public void addToConcurrentLeadBoard() {
-//    }
+    /**
+     * Copy the engine state into the properties and push the grid changes to the display, once per action
+     */
+    @Override
+    public void stateChanged() {
+        score.set(engine.getScore());
+        level.set(engine.getLevel());
+        lives.set(engine.getLives());
+        multiplier.set(engine.getMultiplier());
+        skips.set(engine.getSkips());
+        grid.sync();
+    }
 
+    /**
+     * Get the engine running this game
+     * @return the game engine
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
 
     /**
-     * Generates a new piece which is later set as the following piece
-     * @return the piece to set as the following piece
+     * Get the piece to be played
+     * @return the current piece
      */
-    public GamePiece followingPiece() {
-        GamePiece nextSquarePiece = spawmPiece();
-        return nextSquarePiece;
+    public GamePiece getCurrentPiece() {
+        return engine.getCurrentPiece();
     }
+
     /**
      * Get the grid model inside this game representing the game state of the board
      * @return game grid model
@@ -448,26 +360,18 @@ public class Game  {
     }
 
     /***
-     *This method returns the level as an int
+     *This method returns the score as an int
      * @return score
      */
-    public static int getScore() {
+    public int getScore() {
         return score.get();
     }
 
-    /**
-     * This method sets the score as an int
-     * @param score score to set
-     */
-    public static void setScore(int score) {
-        Game.score.set(score);
-    }
-
     /***
      * This method returns the score as a SimpleIntegerProperty.
      * @return score
      */
-    public static SimpleIntegerProperty scoreProperty() {
+    public SimpleIntegerProperty scoreProperty() {
         return score;
     }
 
@@ -475,7 +379,7 @@ public class Game  {
      * This method returns the level as an int.
      * @return level.
      */
-    public static int getLevel() {
+    public int getLevel() {
         return level.get();
     }
 
@@ -483,7 +387,7 @@ public class Game  {
      * This method returns the level as a SimpleIntegerProperty.
      * @return level
      */
-    public static SimpleIntegerProperty levelProperty() {
+    public SimpleIntegerProperty levelProperty() {
         return level;
     }
 
@@ -491,37 +395,15 @@ public class Game  {
      *This method returns the lives as an int.
      * @return lives
      */
-    public static int getLives() {
+    public int getLives() {
         return lives.get();
     }
 
-    /**
-     * Set the lives
-     * @param lives life to set
-     */
-    public static void setLives(int lives) {
-        Game.lives.set(lives);
-    }
-
-    /**
-     * This method decrements the current lives by 1 life
-     */
-    public static void decrementLife() {
-            int currentLife = getLives();
-            logger.debug("Current Life before decrease: {}", currentLife);
-            int lifeToSet = currentLife - 1;
-//logger.debug("Life to set: {}", lifeToSet);
-            Game.setLives(lifeToSet);
-            logger.debug("Current Life is: {}", getLives());
-            Multimedia.playAudio("lifelose.wav");
-
-
-    }
     /**
      * This method returns the lives as a SimpleIntegerProperty.
      * @return lives
      */
-    public static SimpleIntegerProperty livesProperty() {
+    public SimpleIntegerProperty livesProperty() {
         return lives;
     }
 
@@ -529,7 +411,7 @@ public class Game  {
      * This method returns the multiplier as int.
      * @return multiplier as an int.
      */
-    public static int getMultiplier() {
+    public int getMultiplier() {
         return multiplier.get();
     }
 
@@ -537,105 +419,79 @@ public class Game  {
      * This method returns the multiplier as a SimpleIntegerProperty.
      * @return multiplier
      */
-    public static SimpleIntegerProperty multiplierProperty() {
+    public SimpleIntegerProperty multiplierProperty() {
         return multiplier;
     }
 
     /**
-     * This method is used to update the multiplier property.
-     * @param multiplier the value to set.
-     */
-    public static void setMultiplier(int multiplier) {
-        Game.multiplier.set(multiplier);
-    }
-
-    /**
-     * increments the multiplier
-     */
-    public static void incrementMultiplier() {
-        Game.multiplier.set(getMultiplier() + 1);
-    }
-
-    /**
-     * sets the Multiplier to zero.
+     * This method shuts down the game
      */
-    public static void resetMultiplier(){
-        Game.multiplier.set(1);
+    public void shutDown() {
+        end = true;
+        Multimedia.stopEffects();
+        clock.cancel();
+        finishRecording();
+        logger.info("Shutting down the Game");
     }
 
     /**
-     * increments the level by one unit.
+     * Start recording a replay of this game, if recording is turned on in the {@link ReplayStore}. Games whose pieces
+     * do not come from the seed, such as multiplayer games, cannot be played again and are not recorded.
      */
-    public static void incrementLevel(){
-        Game.level.set(getLevel() + 1);
+    private void startRecording() {
+        if(!engine.isSeeded()) return;
+        try {
+            replay = ReplayStore.start(cols, rows, engine.getSeed());
+        } catch (IOException e) {
+            logger.error("Could not start recording a replay: {}", e.getMessage());
+        }
+        if(replay != null) {
+            engine.setInputListener(replay);
+        }
     }
 
     /**
-     * This method shuts down the game
+     * Finish the replay, if recording
      */
-    public void shutDown() {
-        end = true;
-        Multimedia.stopBackgroundMusic();
-        if(timer != null) {
-            timer.cancel();
-        }
-        logger.info("Shutting down the Game");
+    private void finishRecording() {
+        if(replay == null) return;
+        engine.setInputListener(null);
+        replay.finish(engine);
+        replay = null;
     }
 
     /**
-     * Sets the listener for handling the gameLoop
-     * @param listener The GameLoopListener to set as the listener
+     * Sets the listener to notify when the player has run out of lives
+     * @param listener The GameOverListener to set as the listener
      */
-    public void setOnGameLoop(GameLoopListener listener) {
-        this.gameLoopListner = listener;
+    public void setOnGameOver(GameOverListener listener) {
+        this.gameOverListener = listener;
     }
 
 
     /**
-     * Starts a new timer for the time Task
+     * Gives the player the full time to play the current piece, replacing any time already running
      */
     public void startTimer() {
-        // Cancel the previous timer if it exists
-        if (timer != null) {
-            timer.cancel();
-        }
-
-        blockPlayed = false;
-        // Create a new timer instance
-        timer = new Timer();
-        TimerTask task = new TimerTask() {
-            @Override
-            public void run() {
-                if(!blockPlayed) {
-                    gameLoop();
-                }
-            }
-        };
-        logger.info("New Timer started: {}", timer.toString());
-        timer.scheduleAtFixedRate(task, getTimerDelay(),getTimerDelay());
-
+        clock.start(getTimerDelay(), this::gameLoop);
     }
 
     /**
-     * this method outlines what should happen if the block is not played in time
+     * this method outlines what should happen if the block is not played in time. Runs on the JavaFX thread.
      */
     public void gameLoop() {
-        blockPlayed = false;
-        decrementLife();
-        if(gameLoopListner != null) {
-            gameLoopListner.gameLoop();
+        engine.timeout();
+        if(!engine.isOver()) {
+            startTimer();
         }
-        timerEndGamePieceUpdate();
-        callToListener();
-        resetMultiplier();
     }
 
     /**
-     * updating the currentPiece and following piece as the block was not played in time
+     * Get the clock timing the current piece, for showing the time left and pausing
+     * @return the game clock
      */
-    public void timerEndGamePieceUpdate() {
-        currentPiece = (followingPiece);
-        followingPiece = spawmPiece();
+    public GameClock getClock() {
+        return clock;
     }
 
     /**
@@ -643,7 +499,7 @@ public class Game  {
      * @return the timeDelay calculated
      */
     public long getTimerDelay() {
-      long time =  Math.max(2500,12000 - 500 * getLevel());
+      long time = engine.getTimerDelay();
         logger.debug("Current Play Time Delay: {}", time);
         return time;
     }
@@ -686,15 +542,7 @@ public class Game  {
      * Skips the current Piece
      */
     public void useSkip() {
-        if(skips.get() > 0) {
-            Random random1 = new Random();
-            currentPiece = followingPiece;
-            followingPiece = GamePiece.createPiece(random1.nextInt(14));
-            skips.set(skips.get()-1);
-            if(nextPieceListener != null) {
-                nextPieceListener.nextPiece(currentPiece, followingPiece);
-            }
-        } else {
+        if(!engine.skip()) {
             logger.info("No More Skips available");
         }
     }
@@ -703,7 +551,7 @@ public class Game  {
      * returns the skip property
      * @return skip property
      */
-    public static SimpleIntegerProperty skipProperty() {
+    public SimpleIntegerProperty skipProperty() {
         return skips;
     }
 }
@@ -0,0 +1,204 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GameClock times how long the player has left to play a piece. It holds one deadline at a time, which can be
+ * restarted, cancelled, paused and resumed, and reports the time remaining.
+ *
+ * Every clock shares a single daemon scheduler thread, so restarting the deadline never creates a thread. Time is
+ * measured with {@link System#nanoTime()}, so changes to the wall clock do not affect it. When a deadline expires the
+ * callback is handed to the owner executor (Platform::runLater for a game on screen), so it runs on the same thread as
+ * everything else that changes the game.
+ *
+ * A clock must only be used from its owner thread. A deadline which has been restarted or cancelled never fires, even
+ * if it expired on the scheduler thread just before.
+ */
+public class GameClock {
+
+    /**
+     * used to log progress on terminal
+     */
+    private static final Logger logger = LogManager.getLogger(GameClock.class);
+
+    /**
+     * The scheduler thread shared by every clock
+     */
+    private static final ScheduledThreadPoolExecutor scheduler = createScheduler();
+
+    /**
+     * Runs the callbacks on the thread which owns the clock
+     */
+    private final Executor owner;
+
+    /**
+     * Increased every time the deadline changes, so a deadline which has been replaced can tell it is stale
+     */
+    private long generation = 0;
+
+    /**
+     * The scheduled expiry of the current deadline, or null if none is scheduled
+     */
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Called when the current deadline expires
+     */
+    private Runnable onExpired;
+
+    /**
+     * The length of the current deadline in nanoseconds
+     */
+    private long duration = 0;
+
+    /**
+     * When the current deadline expires, in System.nanoTime() nanoseconds
+     */
+    private long expiresAt = 0;
+
+    /**
+     * Time left on the deadline while paused, in nanoseconds
+     */
+    private long remainingWhenPaused = 0;
+
+    /**
+     * Whether there is a deadline, running or paused
+     */
+    private boolean active = false;
+
+    /**
+     * Whether the deadline is paused
+     */
+    private boolean paused = false;
+
+    /**
+     * Create a new clock
+     * @param owner runs the callbacks on the thread which owns the clock
+     */
+    public GameClock(Executor owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Create the shared scheduler, a single daemon thread
+     * @return the scheduler
+     */
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        var executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "Game Clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Start a new deadline, replacing any current one
+     * @param delay the time until the deadline in milliseconds
+     * @param onExpired called on the owner thread when the deadline expires
+     */
+    public void start(long delay, Runnable onExpired) {
+        cancel();
+        this.onExpired = onExpired;
+        this.duration = TimeUnit.MILLISECONDS.toNanos(delay);
+        this.active = true;
+        schedule(duration);
+        logger.debug("Clock started for {}ms", delay);
+    }
+
+    /**
+     * Cancel the current deadline, if there is one
+     */
+    public void cancel() {
+        generation++;
+        if(pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        active = false;
+        paused = false;
+    }
+
+    /**
+     * Stop the deadline counting down until it is resumed
+     */
+    public void pause() {
+        if(!active || paused) return;
+        remainingWhenPaused = Math.max(0, expiresAt - System.nanoTime());
+        generation++;
+        pending.cancel(false);
+        pending = null;
+        paused = true;
+    }
+
+    /**
+     * Carry on counting down a paused deadline from where it was paused
+     */
+    public void resume() {
+        if(!active || !paused) return;
+        paused = false;
+        schedule(remainingWhenPaused);
+    }
+
+    /**
+     * Schedule the current deadline to expire after the given time
+     * @param delay the time until it expires in nanoseconds
+     */
+    private void schedule(long delay) {
+        long scheduled = ++generation;
+        expiresAt = System.nanoTime() + delay;
+        pending = scheduler.schedule(() -> owner.execute(() -> expire(scheduled)), delay, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Run the callback on the owner thread, unless the deadline has changed since it was scheduled
+     * @param scheduled the generation of the deadline which expired
+     */
+    private void expire(long scheduled) {
+        if(scheduled != generation || !active) return;
+        pending = null;
+        active = false;
+        onExpired.run();
+    }
+
+    /**
+     * Get the time left before the deadline
+     * @return the time left in milliseconds, or 0 if there is no deadline
+     */
+    public long getRemaining() {
+        if(!active) return 0;
+        long remaining = paused ? remainingWhenPaused : expiresAt - System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, remaining));
+    }
+
+    /**
+     * Get the length of the current deadline
+     * @return the length in milliseconds
+     */
+    public long getDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(duration);
+    }
+
+    /**
+     * Check if there is a deadline which is counting down
+     * @return true if running and not paused
+     */
+    public boolean isRunning() {
+        return active && !paused;
+    }
+
+    /**
+     * Check if the deadline is paused
+     * @return true if paused
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+}
@@ -0,0 +1,507 @@
+package uk.ac.soton.comp1206.game;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.event.GameEventListener;
+import uk.ac.soton.comp1206.event.GameInputListener;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The GameEngine holds the rules and the state of a single game of TetrECS: the grid, the current and following
+ * pieces, the score, level, lives, multiplier and skips.
+ *
+ * It is plain Java, with no JavaFX, sound or timer in it. Everything that happens is reported to a
+ * GameEventListener, and the passing of time is an input like any other: the owner calls {@link #timeout()} when the
+ * player has run out of time. This lets any number of games run side by side, with or without a display.
+ *
+ * Random pieces come from a generator seeded per game, so a game played again from the same seed with the same inputs
+ * ends up in exactly the same state.
+ */
+public class GameEngine {
+
+    /**
+     * used to log progress on terminal
+     */
+    private static final Logger logger = LogManager.getLogger(GameEngine.class);
+
+    /**
+     * The number of lives at the start of a game
+     */
+    public static final int STARTING_LIVES = 3;
+
+    /**
+     * The number of skips at the start of a game
+     */
+    public static final int STARTING_SKIPS = 3;
+
+    /**
+     * The seed of the random pieces
+     */
+    private final long seed;
+
+    /**
+     * Used to generate random numbers
+     */
+    private final Random random;
+
+    /**
+     * The grid model linked to the game
+     */
+    private final Grid grid;
+
+    /**
+     * The blocks cleared by the current move, reused for every move
+     */
+    private final CellMask clearedCells;
+
+    /**
+     * Provides the pieces to play, random pieces unless replaced
+     */
+    private PieceSource pieceSource = this::randomPiece;
+
+    /**
+     * Whether the pieces come from the seeded generator, and so can be dealt again from the seed
+     */
+    private boolean seeded = true;
+
+    /**
+     * Listener to notify of everything that happens in the game
+     */
+    private GameEventListener listener;
+
+    /**
+     * Listener to notify of every input, before it is acted on
+     */
+    private GameInputListener inputListener;
+
+    /**
+     * CurrentPiece to be played.
+     */
+    private GamePiece currentPiece;
+
+    /**
+     * The followingPiece to be displayed
+     */
+    private GamePiece followingPiece;
+
+    /**
+     * Users current score
+     */
+    private int score = 0;
+
+    /**
+     * level user is on
+     */
+    private int level = 0;
+
+    /**
+     * Current lives of the user
+     */
+    private int lives = STARTING_LIVES;
+
+    /**
+     * Current multiplier
+     */
+    private int multiplier = 1;
+
+    /**
+     * Skips remaining
+     */
+    private int skips = STARTING_SKIPS;
+
+    /**
+     * Whether the player has run out of lives
+     */
+    private boolean over = false;
+
+    /**
+     * Create a new game engine with the specified rows and columns and a random seed. Creates a corresponding grid
+     * model.
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public GameEngine(int cols, int rows) {
+        this(cols, rows, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Create a new game engine with the specified rows, columns and seed. Creates a corresponding grid model.
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param seed the seed of the random pieces
+     */
+    public GameEngine(int cols, int rows, long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.grid = new Grid(cols, rows);
+        this.clearedCells = new CellMask(cols, rows);
+    }
+
+    /**
+     * Set the listener to notify of everything that happens in the game
+     * @param listener the listener, or null for none
+     */
+    public void setListener(GameEventListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Replace where the pieces come from, for example with pieces sent by a server
+     * @param pieceSource the source of pieces
+     */
+    public void setPieceSource(PieceSource pieceSource) {
+        this.pieceSource = pieceSource;
+        this.seeded = false;
+    }
+
+    /**
+     * Set the listener to notify of every input
+     * @param inputListener the listener, or null for none
+     */
+    public void setInputListener(GameInputListener inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    /**
+     * Deal the first pieces of the game
+     */
+    public void start() {
+        logger.info("Starting game engine");
+        followingPiece = pieceSource.nextPiece();
+        nextPiece();
+        stateChanged();
+    }
+
+    /**
+     * Move the following piece into play and fetch a new following piece
+     */
+    public void nextPiece() {
+        currentPiece = followingPiece;
+        followingPiece = pieceSource.nextPiece();
+        logger.trace("next Piece is : {}, following is {}", currentPiece, followingPiece);
+        if(listener != null) {
+            listener.nextPiece(currentPiece, followingPiece);
+        }
+    }
+
+    /**
+     * Deal pieces the piece source had not got when they were needed, in order, into the current and following
+     * piece, as far as the source now has them
+     */
+    public void dealWaitingPieces() {
+        boolean dealt = false;
+        while(currentPiece == null || followingPiece == null) {
+            if(currentPiece == null && followingPiece != null) {
+                currentPiece = followingPiece;
+                followingPiece = null;
+            } else {
+                var piece = pieceSource.nextPiece();
+                if(piece == null) break;
+                followingPiece = piece;
+            }
+            dealt = true;
+        }
+        if(dealt && listener != null) {
+            listener.nextPiece(currentPiece, followingPiece);
+        }
+    }
+
+    /**
+     * Try to place the current piece with its centre at the given position
+     * @param x column
+     * @param y row
+     * @return true if the piece was placed
+     */
+    public boolean place(int x, int y) {
+        if(inputListener != null) {
+            inputListener.placeRequested(x, y);
+        }
+        if(over || currentPiece == null) return false;
+        if(!grid.canPlayPiece(currentPiece, x, y)) {
+            if(listener != null) {
+                listener.placementRejected(currentPiece, x, y);
+            }
+            return false;
+        }
+
+        var placed = currentPiece;
+        grid.playPiece(placed, x, y);
+        if(listener != null) {
+            listener.piecePlaced(placed, x, y);
+        }
+        nextPiece();
+
+        int lines = 0;
+        int blocks = 0;
+        if(grid.hasFullLines()) {
+            lines = checkRows() + checkColumns();
+            blocks = clearedCells.size();
+            clearBlocks(lines);
+        }
+
+        score(lines, blocks);
+        updateMultiplier(lines);
+        updateLevel();
+        stateChanged();
+        return true;
+    }
+
+    /**
+     * Rotate the current piece
+     * @param rotations number of rotations
+     */
+    public void rotate(int rotations) {
+        if(inputListener != null) {
+            inputListener.rotateRequested(rotations);
+        }
+        if(over || currentPiece == null) return;
+        currentPiece = currentPiece.rotate(rotations);
+        if(listener != null) {
+            listener.pieceRotated(currentPiece);
+        }
+    }
+
+    /**
+     * Swap the current and the following piece
+     */
+    public void swap() {
+        if(inputListener != null) {
+            inputListener.swapRequested();
+        }
+        if(over || currentPiece == null || followingPiece == null) return;
+        var tempGamePiece = followingPiece;
+        followingPiece = currentPiece;
+        currentPiece = tempGamePiece;
+        if(listener != null) {
+            listener.piecesSwapped(currentPiece, followingPiece);
+        }
+    }
+
+    /**
+     * Skip the current piece if there are skips left
+     * @return true if the piece was skipped
+     */
+    public boolean skip() {
+        if(inputListener != null) {
+            inputListener.skipRequested();
+        }
+        if(over || currentPiece == null || skips <= 0) return false;
+        skips--;
+        nextPiece();
+        stateChanged();
+        return true;
+    }
+
+    /**
+     * The piece was not played in time: lose a life, move on to the next piece and reset the multiplier. Running out
+     * of lives ends the game.
+     */
+    public void timeout() {
+        if(inputListener != null) {
+            inputListener.timeoutReached();
+        }
+        if(over) return;
+        lives--;
+        logger.debug("Life lost, lives left: {}", lives);
+        if(listener != null) {
+            listener.lifeLost(lives);
+        }
+        nextPiece();
+        multiplier = 1;
+        if(lives < 0) {
+            over = true;
+            logger.info("Game over with a score of {}", score);
+            if(listener != null) {
+                listener.gameOver();
+            }
+        }
+        stateChanged();
+    }
+
+    /**
+     * Checks for any horizontal lines to clear
+     * @return the number of full rows
+     */
+    private int checkRows() {
+        int numLinesToClear = 0;
+        for(int row = 0; row < grid.getRows(); row++) {
+            if(grid.isRowFull(row)) {
+                numLinesToClear++;
+                clearedCells.addRow(row);
+            }
+        }
+        return numLinesToClear;
+    }
+
+    /**
+     * Checks for any vertical lines to clear
+     * @return the number of full columns
+     */
+    private int checkColumns() {
+        int numLinesToClear = 0;
+        for(int col = 0; col < grid.getCols(); col++) {
+            if(grid.isColumnFull(col)) {
+                numLinesToClear++;
+                clearedCells.addColumn(col);
+            }
+        }
+        return numLinesToClear;
+    }
+
+    /**
+     * Tell the listener which blocks are being cleared and then empty them
+     * @param numLinesToClear the number of full lines
+     */
+    private void clearBlocks(int numLinesToClear) {
+        if(listener != null) {
+            listener.linesCleared(clearedCells, numLinesToClear);
+        }
+        grid.clearCells(clearedCells);
+        clearedCells.clear();
+    }
+
+    /**
+     * This calculates the score of the game after everyplay.
+     * @param numberOfLines number of lines to clear
+     * @param numberOfBlocks number of blocks to clear
+     */
+    private void score(int numberOfLines, int numberOfBlocks) {
+        if(numberOfLines != 0) {
+            score += numberOfLines * numberOfBlocks * 10 * multiplier;
+        }
+    }
+
+    /**
+     * Increase the multiplier after a clear, or reset it when nothing was cleared
+     * @param numLinesToClear number of lines cleared by the current play.
+     */
+    private void updateMultiplier(int numLinesToClear) {
+        if(numLinesToClear > 0) {
+            multiplier++;
+        } else {
+            multiplier = 1;
+        }
+    }
+
+    /**
+     * Goes up a level for every 1000 points
+     */
+    private void updateLevel() {
+        level = score / 1000;
+    }
+
+    /**
+     * Tell the listener an action has finished
+     */
+    private void stateChanged() {
+        if(listener != null) {
+            listener.stateChanged();
+        }
+    }
+
+    /**
+     * Picks a random piece to play
+     * @return the piece that is to be played
+     */
+    private GamePiece randomPiece() {
+        return GamePiece.createPiece(random.nextInt(GamePiece.PIECES));
+    }
+
+    /**
+     * calculates the time allowed to play a piece, which gets shorter as the level goes up
+     * @return the time in milliseconds
+     */
+    public long getTimerDelay() {
+        return Math.max(2500, 12000 - 500 * level);
+    }
+
+    /**
+     * Get the seed of the random pieces
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Check if the pieces come from the seeded generator, so the game can be played again from its seed and inputs
+     * @return false if the piece source has been replaced
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Get the grid model representing the game state of the board
+     * @return game grid model
+     */
+    public Grid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Get the piece to be played
+     * @return the current piece, or null before the first piece has been dealt
+     */
+    public GamePiece getCurrentPiece() {
+        return currentPiece;
+    }
+
+    /**
+     * Get the piece after the current piece
+     * @return the following piece, or null before it has been dealt
+     */
+    public GamePiece getFollowingPiece() {
+        return followingPiece;
+    }
+
+    /**
+     * Get the score
+     * @return score
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Get the level
+     * @return level
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Get the lives left
+     * @return lives
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Get the multiplier
+     * @return multiplier
+     */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Get the skips left
+     * @return skips
+     */
+    public int getSkips() {
+        return skips;
+    }
+
+    /**
+     * Check if the player has run out of lives
+     * @return true once the game is over
+     */
+    public boolean isOver() {
+        return over;
+    }
+}
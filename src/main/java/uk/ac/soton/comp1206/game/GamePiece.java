@@ -1,12 +1,14 @@
 package uk.ac.soton.comp1206.game;
 
-import uk.ac.soton.comp1206.component.PieceBoard;
-
 /**
  * Instances of GamePiece Represents the model of a specific Game Piece with it's block makeup.
  *
  * The GamePiece class also contains a factory for producing a GamePiece of a particular shape, as specified by it's
  * number.
+ *
+ * Every piece in every rotation is built once when the class is loaded and shared from then on, so a GamePiece is
+ * immutable and is really just a (piece number, rotation) pair pointing into that table. Rotating a piece returns
+ * another entry of the table rather than creating new blocks.
  */
 public class GamePiece {
 
@@ -15,17 +17,54 @@ public class GamePiece {
      */
     public static final int PIECES = 15;
 
+    /**
+     * The number of distinct rotations of each piece
+     */
+    public static final int ROTATIONS = 4;
+
+    /**
+     * The names of the pieces, indexed by piece number
+     */
+    private static final String[] NAMES = {
+            "Line", "C", "Plus", "Dot", "Square", "L", "J", "S", "Z", "T", "X", "Corner", "Inverse Corner", "Diagonal",
+            "Double"
+    };
+
+    /**
+     * Every piece in every rotation, indexed by [piece number][rotation]
+     */
+    private static final GamePiece[][] TABLE = buildTable();
 
     /**
      * The 2D grid representation of the shape of this piece
      */
-    private int[][] blocks;
+    private final int[][] blocks;
 
     /**
      * The value of this piece
      */
     private final int value;
 
+    /**
+     * The piece number of this piece
+     */
+    private final int piece;
+
+    /**
+     * Which rotation of the piece this is, from 0 to 3
+     */
+    private final int rotation;
+
+    /**
+     * The footprint of this piece as a bitmask over its 3x3 grid, bit (y * 3 + x) is set when block x,y is filled
+     */
+    private final int mask;
+
+    /**
+     * The leftmost, rightmost, top and bottom filled offsets within the 3x3 grid
+     */
+    private final int minX, maxX, minY, maxY;
+
 
     /**
      * Returns the name of this instance
@@ -46,113 +85,99 @@ public class GamePiece {
      * @return the created GamePiece
      */
     public static GamePiece createPiece(int piece) {
-        switch (piece) {
-            //Line
-            case 0 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}};
-                return new GamePiece("Line", blocks, 1);
-            }
+        return createPiece(piece, 0);
+    }
 
-            //C
-            case 1 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}};
-                return new GamePiece("C", blocks, 2);
-            }
+    /**
+     * Create a new GamePiece of the specified piece number and rotation
+     * @param piece piece number
+     * @param rotation number of times to rotate
+     * @return the created GamePiece
+     */
+    public static GamePiece createPiece(int piece, int rotation) {
+        if(piece < 0 || piece >= PIECES) {
+            //Not a valid piece number
+            throw new IndexOutOfBoundsException("No such piece: " + piece);
+        }
+        return TABLE[piece][Math.floorMod(rotation, ROTATIONS)];
+    }
 
+    /**
+     * Get the block makeup of a piece in its starting rotation
+     * @param piece piece number
+     * @return 2D grid of the blocks, 1 where the piece has a block
+     */
+    private static int[][] shape(int piece) {
+        return switch (piece) {
+            //Line
+            case 0 -> new int[][] {{0, 0, 0}, {1, 1, 1}, {0, 0, 0}};
+            //C
+            case 1 -> new int[][] {{0, 0, 0}, {1, 1, 1}, {1, 0, 1}};
             //Plus
-            case 2 -> {
-                int[][] blocks = {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}};
-                return new GamePiece("Plus", blocks, 3);
-            }
-
+            case 2 -> new int[][] {{0, 1, 0}, {1, 1, 1}, {0, 1, 0}};
             //Dot
-            case 3 -> {
-                int[][] blocks = {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Dot", blocks, 4);
-            }
-
+            case 3 -> new int[][] {{0, 0, 0}, {0, 1, 0}, {0, 0, 0}};
             //Square
-            case 4 -> {
-                int[][] blocks = {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Square", blocks, 5);
-            }
-
+            case 4 -> new int[][] {{1, 1, 0}, {1, 1, 0}, {0, 0, 0}};
             //L
-            case 5 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}};
-                return new GamePiece("L", blocks, 6);
-            }
-
+            case 5 -> new int[][] {{0, 0, 0}, {1, 1, 1}, {0, 0, 1}};
             //J
-            case 6 -> {
-                int[][] blocks = {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}};
-                return new GamePiece("J", blocks, 7);
-            }
-
+            case 6 -> new int[][] {{0, 0, 1}, {1, 1, 1}, {0, 0, 0}};
             //S
-            case 7 -> {
-                int[][] blocks = {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}};
-                return new GamePiece("S", blocks, 8);
-            }
-
+            case 7 -> new int[][] {{0, 0, 0}, {0, 1, 1}, {1, 1, 0}};
             //Z
-            case 8 -> {
-                int[][] blocks = {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}};
-                return new GamePiece("Z", blocks, 9);
-            }
-
+            case 8 -> new int[][] {{1, 1, 0}, {0, 1, 1}, {0, 0, 0}};
             //T
-            case 9 -> {
-                int[][] blocks = {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}};
-                return new GamePiece("T", blocks, 10);
-            }
-
+            case 9 -> new int[][] {{1, 0, 0}, {1, 1, 0}, {1, 0, 0}};
             //X
-            case 10 -> {
-                int[][] blocks = {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}};
-                return new GamePiece("X", blocks, 11);
-            }
-
+            case 10 -> new int[][] {{1, 0, 1}, {0, 1, 0}, {1, 0, 1}};
             //Corner
-            case 11 -> {
-                int[][] blocks = {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}};
-                return new GamePiece("Corner", blocks, 12);
-            }
-
+            case 11 -> new int[][] {{0, 0, 0}, {1, 1, 0}, {1, 0, 0}};
             //Inverse Corner
-            case 12 -> {
-                int[][] blocks = {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Inverse Corner", blocks, 13);
-            }
-
+            case 12 -> new int[][] {{1, 0, 0}, {1, 1, 0}, {0, 0, 0}};
             //Diagonal
-            case 13 -> {
-                int[][] blocks = {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
-                return new GamePiece("Diagonal", blocks, 14);
-            }
-
+            case 13 -> new int[][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
             //Double
-            case 14 -> {
-                int[][] blocks = {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}};
-                return new GamePiece("Double", blocks, 15);
+            case 14 -> new int[][] {{0, 1, 0}, {0, 1, 0}, {0, 0, 0}};
+            default -> throw new IndexOutOfBoundsException("No such piece: " + piece);
+        };
+    }
+
+    /**
+     * Build every rotation of every piece
+     * @return the table of pieces, indexed by [piece number][rotation]
+     */
+    private static GamePiece[][] buildTable() {
+        var table = new GamePiece[PIECES][ROTATIONS];
+        for(int piece = 0; piece < PIECES; piece++) {
+            var blocks = shape(piece);
+            for(int rotation = 0; rotation < ROTATIONS; rotation++) {
+                table[piece][rotation] = new GamePiece(NAMES[piece], blocks, piece + 1, piece, rotation);
+                blocks = rotate(blocks);
             }
         }
-
-        //Not a valid piece number
-        throw new IndexOutOfBoundsException("No such piece: " + piece);
+        return table;
     }
 
     /**
-     * Create a new GamePiece of the specified piece number and rotation
-     * @param piece piece number
-     * @param rotation number of times to rotate
-     * @return the created GamePiece
+     * Rotate a 3x3 grid of blocks exactly once
+     * @param blocks the blocks to rotate
+     * @return the rotated blocks
      */
-    public static GamePiece createPiece(int piece, int rotation) {
-        var newPiece = createPiece(piece);
+    private static int[][] rotate(int[][] blocks) {
+        int[][] rotated = new int[blocks.length][blocks[0].length];
+        rotated[2][0] = blocks[0][0];
+        rotated[1][0] = blocks[0][1];
+        rotated[0][0] = blocks[0][2];
 
-        newPiece.rotate(rotation);
-        return newPiece;
+        rotated[2][1] = blocks[1][0];
+        rotated[1][1] = blocks[1][1];
+        rotated[0][1] = blocks[1][2];
+
+        rotated[2][2] = blocks[2][0];
+        rotated[1][2] = blocks[2][1];
+        rotated[0][2] = blocks[2][2];
+        return rotated;
     }
 
 
@@ -160,21 +185,37 @@ public class GamePiece {
      * Create a new GamePiece with the given name, block makeup and value. Should not be called directly, only via the
      * factory.
      * @param name name of the piece
-     * @param blocks block makeup of the piece
+     * @param shape block makeup of the piece, which is copied
      * @param value the value of this piece
+     * @param piece the piece number
+     * @param rotation the rotation of this piece
      */
-    GamePiece(String name, int[][] blocks, int value) {
+    private GamePiece(String name, int[][] shape, int value, int piece, int rotation) {
         this.name = name;
-        this.blocks = blocks;
         this.value = value;
+        this.piece = piece;
+        this.rotation = rotation;
+        this.blocks = new int[shape.length][shape[0].length];
 
         //Use the shape of the block to create a grid with either 0 (empty) or the value of this shape for each block.
-        for(int x = 0; x < blocks.length; x++) {
-            for (int y = 0; y < blocks[x].length; y++) {
-                if(blocks[x][y] == 0) continue;
+        int mask = 0;
+        int minX = 2, maxX = 0, minY = 2, maxY = 0;
+        for(int x = 0; x < shape.length; x++) {
+            for (int y = 0; y < shape[x].length; y++) {
+                if(shape[x][y] == 0) continue;
                 blocks[x][y] = value;
+                mask |= 1 << (y * 3 + x);
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
             }
         }
+        this.mask = mask;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
     }
 
     /**
@@ -186,7 +227,31 @@ public class GamePiece {
     }
 
     /**
-     * Get the block makeup of this piece
+     * Get the piece number of this piece
+     * @return piece number
+     */
+    public int getPiece() {
+        return piece;
+    }
+
+    /**
+     * Get which rotation of the piece this is
+     * @return rotation, from 0 to 3
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Get a unique index for this piece and rotation, from 0 to PIECES * ROTATIONS - 1. Useful for per shape tables.
+     * @return the index
+     */
+    public int getIndex() {
+        return piece * ROTATIONS + rotation;
+    }
+
+    /**
+     * Get the block makeup of this piece. The array is shared and must not be modified.
      * @return 2D grid of the blocks representing the piece shape
      */
     public int[][] getBlocks() {
@@ -194,45 +259,69 @@ public class GamePiece {
     }
 
     /**
-     * Rotate this piece the given number of rotations
-     * @param rotations number of rotations
+     * Get the footprint of this piece, bit (y * 3 + x) is set when block x,y of the 3x3 grid is filled
+     * @return the footprint bitmask
      */
-    public void rotate(int rotations) {
-        for(int rotated = 0; rotated < rotations; rotated ++) {
-            rotate();
-        }
+    public int getMask() {
+        return mask;
     }
 
     /**
-     * Rotate this piece exactly once by rotating it's 3x3 grid
-     * @return the rotated blocks
+     * Get the footprint of one row of this piece, bit x is set when block x,y is filled
+     * @param y row of the 3x3 grid
+     * @return the row bitmask
      */
-    public int[][] rotate() {
-        int[][] rotated = new int[blocks.length][blocks[0].length];
-        rotated[2][0] = blocks[0][0];
-        rotated[1][0] = blocks[0][1];
-        rotated[0][0] = blocks[0][2];
+    public int getRowMask(int y) {
+        return (mask >>> (y * 3)) & 0b111;
+    }
 
-        rotated[2][1] = blocks[1][0];
-        rotated[1][1] = blocks[1][1];
-        rotated[0][1] = blocks[1][2];
+    /**
+     * Get the leftmost filled column of the 3x3 grid
+     * @return the column
+     */
+    public int getMinX() {
+        return minX;
+    }
 
-        rotated[2][2] = blocks[2][0];
-        rotated[1][2] = blocks[2][1];
-        rotated[0][2] = blocks[2][2];
+    /**
+     * Get the rightmost filled column of the 3x3 grid
+     * @return the column
+     */
+    public int getMaxX() {
+        return maxX;
+    }
 
-        blocks = rotated;
-        return rotated;
-//        return new GamePiece(this.getName(),blocks,this.getValue());
+    /**
+     * Get the top filled row of the 3x3 grid
+     * @return the row
+     */
+    public int getMinY() {
+        return minY;
     }
 
+    /**
+     * Get the bottom filled row of the 3x3 grid
+     * @return the row
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Get this piece rotated the given number of rotations
+     * @param rotations number of rotations
+     * @return the rotated piece
+     */
+    public GamePiece rotate(int rotations) {
+        return TABLE[piece][Math.floorMod(rotation + rotations, ROTATIONS)];
+    }
 
     /**
-     * Sets the blocks
-     * @param blocks blocks to set the blocks as
+     * Get this piece rotated exactly once
+     * @return the rotated piece
      */
-    public void setBlocks(int[][] blocks) {
-        this.blocks = blocks;
+    public GamePiece rotate() {
+        return rotate(1);
     }
 
     /**
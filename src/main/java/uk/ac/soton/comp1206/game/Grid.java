@@ -4,14 +4,21 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.component.GameBlock;
+import uk.ac.soton.comp1206.event.BlockChangedListener;
+
+import java.util.Arrays;
 
 /**
  * The Grid is a model which holds the state of a game board. It is made up of a set of Integer values arranged in a 2D
  * arrow, with rows and columns.
  *
- * Each value inside the Grid is an IntegerProperty can be bound to enable modification and display of the contents of
- * the grid.
+ * The state itself is held in primitive arrays: an occupancy bitboard with one bit per cell and a compact array of
+ * cell values, both in row-major order. All game logic runs against these.
+ *
+ * Each value inside the Grid can also be viewed as an IntegerProperty which can be bound to enable display of the
+ * contents of the grid. The properties are only created the first time one is asked for, and are brought up to date
+ * by calling {@link #sync()} once a move has finished, so a grid that is never displayed allocates no JavaFX objects.
+ * A display which draws the grid itself can instead listen for the blocks changed by each sync.
  *
  * The Grid contains functions related to modifying the model, for example, placing a piece inside the grid.
  *
@@ -22,6 +29,12 @@ public class Grid {
 
     private static final Logger logger = LogManager.getLogger(Grid.class);
 
+    /**
+     * The most cells a grid can have. Sixteen times an endurance board, and far below where the cell index or the
+     * arrays would overflow.
+     */
+    public static final int MAX_CELLS = 1 << 24;
+
     /**
      * The number of columns in this grid
      */
@@ -33,9 +46,67 @@ public class Grid {
     private final int rows;
 
     /**
-     * The grid is a 2D arrow with rows and columns of SimpleIntegerProperties.
+     * Occupancy bitboard, bit (y * cols + x) is set when the cell at x,y holds a block.
+     */
+    private final long[] occupied;
+
+    /**
+     * The value of every cell, indexed by (y * cols + x). 0 is empty, otherwise the value of the piece.
+     */
+    private final byte[] values;
+
+    /**
+     * The number of filled blocks in each row
+     */
+    private final int[] rowFill;
+
+    /**
+     * The number of filled blocks in each column
+     */
+    private final int[] colFill;
+
+    /**
+     * The number of rows and columns which are currently full
+     */
+    private int fullLines = 0;
+
+    /**
+     * Cells which have changed since the property view was last synced, using the same indexing as the occupancy.
      */
-    private final SimpleIntegerProperty[][] grid;
+    private final long[] dirty;
+
+    /**
+     * The first word of the dirty bits which may be set. Together with {@link #dirtyTo} this keeps a sync of a large
+     * grid in proportion to the blocks changed rather than the size of the grid.
+     */
+    private int dirtyFrom;
+
+    /**
+     * The last word of the dirty bits which may be set, or less than {@link #dirtyFrom} if none are
+     */
+    private int dirtyTo = -1;
+
+    /**
+     * The footprint of every piece and rotation laid out with this grid's row stride, or null if the grid is too wide
+     * for a footprint to fit in one long.
+     */
+    private final long[] footprints;
+
+    /**
+     * The occupancy of each row as a bitmask, reused by {@link #legalPlacements(GamePiece, Placements)}. Null until
+     * first needed.
+     */
+    private long[] rowScratch;
+
+    /**
+     * The property view of the grid. Null until a property is first requested.
+     */
+    private PropertyView properties;
+
+    /**
+     * Listener to notify of every block changed, when the grid is synced
+     */
+    private BlockChangedListener blockChangedListener;
 
     /**
      * Create a new Grid with the specified number of columns and rows and initialise them
@@ -47,24 +118,91 @@ public class Grid {
         this.rows = rows;
 
         //Create the grid itself
-        grid = new SimpleIntegerProperty[cols][rows];
-
-        //Add a SimpleIntegerProperty to every block in the grid
-        for(var y = 0; y < rows; y++) {
-            for(var x = 0; x < cols; x++) {
-                grid[x][y] = new SimpleIntegerProperty(0);
-            }
-        }
+        int words = (cols * rows + 63) >>> 6;
+        occupied = new long[words];
+        dirty = new long[words];
+        dirtyFrom = words;
+        values = new byte[cols * rows];
+        rowFill = new int[rows];
+        colFill = new int[cols];
+        footprints = buildFootprints();
     }
 
     /**
      * Get the Integer property contained inside the grid at a given row and column index. Can be used for binding.
+     * The property reflects the grid as of the last call to {@link #sync()}.
      * @param x column
      * @param y row
      * @return the IntegerProperty at the given x and y in this grid
      */
     public IntegerProperty getGridProperty(int x, int y) {
-        return grid[x][y];
+        if(properties == null) {
+            properties = new PropertyView(this);
+            clearDirty();
+        }
+        return properties.get(x, y);
+    }
+
+    /**
+     * Set the listener to notify of every block changed, when the grid is synced
+     * @param listener the listener, or null for none
+     */
+    public void setOnBlockChanged(BlockChangedListener listener) {
+        this.blockChangedListener = listener;
+    }
+
+    /**
+     * Push every cell changed since the last sync into the property view and the block changed listener, so anything
+     * showing the grid is updated once per move rather than once per cell write. Does nothing but forget the changes
+     * if there is neither.
+     */
+    public void sync() {
+        if(properties == null && blockChangedListener == null) {
+            clearDirty();
+            return;
+        }
+        int from = dirtyFrom;
+        int to = dirtyTo;
+        dirtyFrom = dirty.length;
+        dirtyTo = -1;
+        for(int word = from; word <= to; word++) {
+            long bits = dirty[word];
+            dirty[word] = 0;
+            while(bits != 0) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int x = index % cols;
+                int y = index / cols;
+                if(properties != null) {
+                    properties.set(x, y, values[index]);
+                }
+                if(blockChangedListener != null) {
+                    blockChangedListener.blockChanged(x, y, values[index]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget all pending changes
+     */
+    private void clearDirty() {
+        if(dirtyFrom <= dirtyTo) {
+            Arrays.fill(dirty, dirtyFrom, dirtyTo + 1, 0);
+        }
+        dirtyFrom = dirty.length;
+        dirtyTo = -1;
+    }
+
+    /**
+     * Mark a cell as changed since the last sync
+     * @param index the cell index
+     */
+    private void markDirty(int index) {
+        int word = index >>> 6;
+        dirty[word] |= 1L << index;
+        if(word < dirtyFrom) dirtyFrom = word;
+        if(word > dirtyTo) dirtyTo = word;
     }
 
     /**
@@ -74,14 +212,82 @@ public class Grid {
      * @param value the new value
      */
     public void set(int x, int y, int value) {
-        if(x < cols && y < rows) {
-            grid[x][y].set(value);
+        if(x >= 0 && y >= 0 && x < cols && y < rows) {
+            int index = y * cols + x;
+            if(values[index] == value) return;
+            boolean wasEmpty = values[index] == 0;
+            values[index] = (byte) value;
+            long bit = 1L << index;
+            if(value == 0) {
+                occupied[index >>> 6] &= ~bit;
+                removeFill(x, y);
+            } else {
+                occupied[index >>> 6] |= bit;
+                if(wasEmpty) addFill(x, y);
+            }
+            markDirty(index);
         }else {
             logger.info("cant Place the piece there");
         }
     }
 
 
+    /**
+     * Count a block which has just been filled in its row and column
+     * @param x column
+     * @param y row
+     */
+    private void addFill(int x, int y) {
+        if(++rowFill[y] == cols) fullLines++;
+        if(++colFill[x] == rows) fullLines++;
+    }
+
+    /**
+     * Stop counting a block which has just been emptied in its row and column
+     * @param x column
+     * @param y row
+     */
+    private void removeFill(int x, int y) {
+        if(rowFill[y]-- == cols) fullLines--;
+        if(colFill[x]-- == rows) fullLines--;
+    }
+
+    /**
+     * Empty every block in the mask
+     * @param cells the blocks to empty
+     */
+    public void clearCells(CellMask cells) {
+        for(int index = cells.nextIndex(0); index >= 0; index = cells.nextIndex(index + 1)) {
+            set(cells.getX(index), cells.getY(index), 0);
+        }
+    }
+
+    /**
+     * Check if any row or column is full
+     * @return true if there is at least one line to clear
+     */
+    public boolean hasFullLines() {
+        return fullLines > 0;
+    }
+
+    /**
+     * Check if every block in a row is filled
+     * @param y row
+     * @return true if the row is full
+     */
+    public boolean isRowFull(int y) {
+        return rowFill[y] == cols;
+    }
+
+    /**
+     * Check if every block in a column is filled
+     * @param x column
+     * @return true if the column is full
+     */
+    public boolean isColumnFull(int x) {
+        return colFill[x] == rows;
+    }
+
     /**
      * This verifies if a piece can be placed in the grid.
      * @param piece  This is the piece to be played
@@ -90,28 +296,98 @@ public class Grid {
      * @return if it can be placed
      */
     public boolean canPlayPiece(GamePiece piece, int x, int y) {
-        logger.info("Checking if we can play the piece {} at {}. {}", piece,x,y);
+        logger.trace("Checking if we can play the piece {} at {}. {}", piece,x,y);
 
-        int topX = x - 1;
-        int topY = y - 1;
+        //The filled part of the piece must be inside the grid
+        int left = x - 1 + piece.getMinX();
+        int top = y - 1 + piece.getMinY();
+        if(left < 0 || top < 0 || x - 1 + piece.getMaxX() >= cols || y - 1 + piece.getMaxY() >= rows) {
+            return false;
+        }
+
+        int index = top * cols + left;
+        if(footprints != null) {
+            //The whole footprint fits in one window of the bitboard
+            return (window(index) & footprints[piece.getIndex()]) == 0;
+        }
+        for(int row = piece.getMinY(); row <= piece.getMaxY(); row++) {
+            if((window(index) & (piece.getRowMask(row) >>> piece.getMinX())) != 0) {
+                return false;
+            }
+            index += cols;
+        }
+        return true;
+    }
+
+    /**
+     * Work out every position where a piece can be played, in every rotation
+     * @param piece the piece to place, in any rotation
+     * @return the legal positions of each rotation
+     */
+    public Placements legalPlacements(GamePiece piece) {
+        var placements = new Placements(cols, rows);
+        legalPlacements(piece, placements);
+        return placements;
+    }
 
-        int [][] blocks = piece.getBlocks();
-            for (var blockX = 0; blockX < blocks.length; blockX++) {
-                for (var blockY = 0; blockY < blocks[0].length; blockY++) {
-                    var blockvalue = blocks[blockX][blockY];
-                    if(blockvalue > 0) {
-                        //Check if we can place this block on the grid
-                        var gridValue =  get(topX + blockX, topY + blockY);
-//                        logger.debug("the Rows {}, the coloums{} {}, {}", blockX,blockY,blockvalue,gridValue);
-                        if(gridValue != 0) {
-                            logger.info("Unable to place piece confilict at {},{}"
-                                                    , topX + blockX, topY + blockY);
-                            return false;
-                        }
+    /**
+     * Work out every position where a piece can be played, in every rotation, into an existing set of placements.
+     *
+     * On grids up to 64 columns wide each grid row is read once as a bitmask. For every rotation, a row of anchors is
+     * blocked wherever a row of the grid under the piece, shifted by each filled column of the piece, has a block, so
+     * a whole row of positions is decided with a few shifts and ORs. Wider grids fall back to
+     * {@link #canPlayPiece(GamePiece, int, int)} for every position.
+     * @param piece the piece to place, in any rotation
+     * @param placements where to put the legal positions, sized for this grid
+     */
+    public void legalPlacements(GamePiece piece, Placements placements) {
+        placements.reset(piece.getPiece());
+        if(cols > 64) {
+            for(int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+                var rotated = GamePiece.createPiece(piece.getPiece(), rotation);
+                var positions = placements.get(rotation);
+                for(int y = 0; y < rows; y++) {
+                    for(int x = 0; x < cols; x++) {
+                        if(canPlayPiece(rotated, x, y)) positions.add(x, y);
                     }
                 }
             }
-            return true;
+            return;
+        }
+
+        if(rowScratch == null) {
+            rowScratch = new long[rows];
+        }
+        long colsMask = cols == 64 ? -1L : (1L << cols) - 1;
+        for(int y = 0; y < rows; y++) {
+            rowScratch[y] = window(y * cols) & colsMask;
+        }
+
+        for(int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+            var rotated = GamePiece.createPiece(piece.getPiece(), rotation);
+            var positions = placements.get(rotation);
+
+            //The anchors which keep the whole piece inside the grid
+            int firstX = 1 - rotated.getMinX();
+            int lastX = cols - rotated.getMaxX();
+            int firstY = 1 - rotated.getMinY();
+            int lastY = rows - rotated.getMaxY();
+            if(firstX > lastX || firstY > lastY) continue;
+            long inside = (colsMask >>> firstX << firstX) & (colsMask >>> (cols - 1 - lastX));
+
+            for(int y = firstY; y <= lastY; y++) {
+                long blocked = 0;
+                for(int row = rotated.getMinY(); row <= rotated.getMaxY(); row++) {
+                    long occupied = rowScratch[y - 1 + row];
+                    int rowMask = rotated.getRowMask(row);
+                    //Piece column 0 sits one left of the anchor, column 2 one right
+                    if((rowMask & 0b001) != 0) blocked |= occupied << 1;
+                    if((rowMask & 0b010) != 0) blocked |= occupied;
+                    if((rowMask & 0b100) != 0) blocked |= occupied >>> 1;
+                }
+                positions.addRowBits(y, inside & ~blocked);
+            }
+        }
     }
 
     /**
@@ -122,27 +398,76 @@ public class Grid {
      */
     public void playPiece(GamePiece piece, int x, int y) {
 
-        logger.info("playing the piece {} at {}. {}", piece,x,y);
+        logger.trace("playing the piece {} at {}. {}", piece,x,y);
         int topX = x - 1;
         int topY = y - 1;
 
         int value = piece.getValue();
-         int [][] blocks = piece.getBlocks();
          if (canPlayPiece(piece,x,y)) {
-            for (var blockX = 0; blockX < blocks.length; blockX++) {
-                for (var blockY = 0; blockY < blocks[0].length; blockY++) {
-                    var blockValue = blocks[blockX][blockY];
-                    if(blockValue > 0) {
-                        //BlockX and BlockY corrdinate
-                        set(topX + blockX, topY + blockY, value);
-                    }
-                }
-            }
+             int mask = piece.getMask();
+             while (mask != 0) {
+                 int block = Integer.numberOfTrailingZeros(mask);
+                 mask &= mask - 1;
+                 //BlockX and BlockY corrdinate
+                 set(topX + block % 3, topY + block / 3, value);
+             }
         }
         //return if we cant play the piece (Same as  if(!canPlayPiece(piece,x,y)))
         else return;
 
     }
+
+    /**
+     * Read 64 bits of the bitboard starting at the given cell index. Bits past the end of the grid read as empty.
+     * @param index the cell index of the lowest bit
+     * @return the bits
+     */
+    private long window(int index) {
+        int word = index >>> 6;
+        int shift = index & 63;
+        long bits = occupied[word] >>> shift;
+        if(shift != 0 && word + 1 < occupied.length) {
+            bits |= occupied[word + 1] << (64 - shift);
+        }
+        return bits;
+    }
+
+    /**
+     * Build the footprint of every piece and rotation laid out with this grid's row stride, with the top left filled
+     * block at bit 0. Only possible when three rows of the grid fit in a single window of the bitboard.
+     * @return the footprints indexed by GamePiece index, or null if the grid is too wide
+     */
+    private long[] buildFootprints() {
+        if(2 * cols + 3 > 64) {
+            return null;
+        }
+        var footprints = new long[GamePiece.PIECES * GamePiece.ROTATIONS];
+        for(int piece = 0; piece < GamePiece.PIECES; piece++) {
+            for(int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+                var gamePiece = GamePiece.createPiece(piece, rotation);
+                long footprint = 0;
+                for(int row = gamePiece.getMinY(); row <= gamePiece.getMaxY(); row++) {
+                    long rowMask = gamePiece.getRowMask(row) >>> gamePiece.getMinX();
+                    footprint |= rowMask << ((row - gamePiece.getMinY()) * cols);
+                }
+                footprints[gamePiece.getIndex()] = footprint;
+            }
+        }
+        return footprints;
+    }
+
+    /**
+     * Check whether the given cell holds a block. Cells outside the grid count as occupied.
+     * @param x column
+     * @param y row
+     * @return true if the cell is outside the grid or not empty
+     */
+    public boolean isOccupied(int x, int y) {
+        if(x < 0 || y < 0 || x >= cols || y >= rows) return true;
+        int index = y * cols + x;
+        return (occupied[index >>> 6] & (1L << index)) != 0;
+    }
+
     /**
      * Get the value represented at the given x and y index within the grid
      * @param x column
@@ -150,13 +475,11 @@ public class Grid {
      * @return the value
      */
     public int get(int x, int y) {
-        try {
-            //Get the value held in the property at the x and y index provided
-            return grid[x][y].get();
-        } catch (ArrayIndexOutOfBoundsException e) {
+        if(x < 0 || y < 0 || x >= cols || y >= rows) {
             //No such index
             return -1;
         }
+        return values[y * cols + x];
     }
 
     /**
@@ -175,4 +498,49 @@ public class Grid {
         return rows;
     }
 
+    /**
+     * The IntegerProperty view of a grid, a 2D array of SimpleIntegerProperties. Kept apart from the Grid so that a
+     * grid which is never displayed never loads any JavaFX classes.
+     */
+    private static class PropertyView {
+
+        /**
+         * The properties, indexed by [x][y]
+         */
+        private final SimpleIntegerProperty[][] properties;
+
+        /**
+         * Create a property for every block in the grid, holding the current value of that block
+         * @param grid the grid to view
+         */
+        PropertyView(Grid grid) {
+            properties = new SimpleIntegerProperty[grid.cols][grid.rows];
+            for(var y = 0; y < grid.rows; y++) {
+                for(var x = 0; x < grid.cols; x++) {
+                    properties[x][y] = new SimpleIntegerProperty(grid.get(x, y));
+                }
+            }
+        }
+
+        /**
+         * Get the property for a block
+         * @param x column
+         * @param y row
+         * @return the property
+         */
+        IntegerProperty get(int x, int y) {
+            return properties[x][y];
+        }
+
+        /**
+         * Update the property for a block
+         * @param x column
+         * @param y row
+         * @param value the new value
+         */
+        void set(int x, int y, int value) {
+            properties[x][y].set(value);
+        }
+    }
+
 }
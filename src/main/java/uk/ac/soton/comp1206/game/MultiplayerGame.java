@@ -9,6 +9,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.Media.Multimedia;
 import uk.ac.soton.comp1206.network.Communicator;
+import uk.ac.soton.comp1206.network.Message;
 
 import java.util.*;
 
@@ -34,9 +35,24 @@ public class MultiplayerGame extends Game {
   private final Queue<GamePiece> pieceQueue;
 
   /**
-   * Used to distinguish if its the first Play
+   * How many pieces to keep queued or on their way from the server, beyond the two the engine holds
    */
-  private boolean firstTime = true;
+  private static final int LOOK_AHEAD = 4;
+
+  /**
+   * The number of pieces requested from the server which have not arrived yet
+   */
+  private int piecesRequested;
+
+  /**
+   * Whether the engine has been started, which waits until the first two pieces have arrived
+   */
+  private boolean dealt;
+
+  /**
+   * Whether a piece was placed or a life lost since the server was last sent the score, board and lives
+   */
+  private boolean updateWaiting;
 
   /**
    *  used to add a list for onlineScores
@@ -74,72 +90,67 @@ public class MultiplayerGame extends Game {
     super(cols, rows);
     this.pieceQueue = new LinkedList<>();
     this.communicator = communicator;
+    engine.setPieceSource(this::followingPiece);
 //    communicator.addListener((message) -> Platform.runLater(() -> this.processMessage(message)));
 //    requestPiecesFromServer();
 
   }
 
   /**
-   * Overrides the Game class start method to add communicators and send messages
+   * Overrides the Game class start method to add communicators and request the first pieces. The game itself starts
+   * once the current and the following piece have arrived.
    */
   @Override
   public void start() {
     communicator.clearListeners();
-    communicator.addListener((message) -> Platform.runLater(() -> this.processMessage(message)));
+    communicator.addMessageListener((message) -> Platform.runLater(() -> this.processMessage(message)));
+    dealt = false;
     requestPiecesFromServer();
-    requestPiecesFromServer();
-    super.start();
-    //logger.debug("Piece Queue in start is {}, CP is {}, FP: {}", pieceQueue,currentPiece,followingPiece);
   }
 
   /**
-   * Request a new piece from the server
+   * Request pieces from the server until the queue and the pieces on their way fill the look-ahead, plus the two
+   * pieces the engine deals at the start if it has not started yet
    */
   private void requestPiecesFromServer() {
-    // Send a message to the server to request piece stream
-    logger.info("Sending Piece Request");
-    communicator.send("PIECE");
+    int wanted = dealt ? LOOK_AHEAD : LOOK_AHEAD + 2;
+    while(pieceQueue.size() + piecesRequested < wanted) {
+      logger.info("Sending Piece Request");
+      communicator.send("PIECE");
+      piecesRequested++;
+    }
   }
 
   /**
    * Outlines the logic to process the message received from the server
    * @param message the message received from the server
    */
-  public void processMessage(String message) {
-    if (message.startsWith("PIECE")) {
-      // Extract the piece information from the message
-      String[] parts = message.split(" ");
-      if (parts.length == 2) {
-        // Create a new piece based on the received data and add it to the piece queue
-        GamePiece newPiece = GamePiece.createPiece(Integer.parseInt(parts[1].trim()));
-        pieceQueue.offer(newPiece);
-        //System.out.println(pieceQueue);
-        if(firstTime) {
-          nextPiece();
-          firstTime = false;
-        }
+  public void processMessage(Message message) {
+    if (message instanceof Message.Piece piece) {
+      // Create a new piece based on the received data and add it to the piece queue
+      piecesRequested = Math.max(0, piecesRequested - 1);
+      pieceQueue.offer(GamePiece.createPiece(piece.value()));
+      //Start the game once both the current and the following piece have arrived
+      if(!dealt && pieceQueue.size() >= 2) {
+        dealt = true;
+        super.start();
+      } else if(dealt) {
+        //Deal any piece the engine has been waiting for since the queue ran dry
+        engine.dealWaitingPieces();
       }
-    }  else if(message.startsWith("SCORES")) {
-      String[] parts = message.split(" ");
-
-      var eachPlayer  = parts[1].split("\n");
-//      onlineScorelist.clear();
+    } else if (message instanceof Message.Scores scores) {
       playerScoresMap = new HashMap<>();
 
-      for (String data : eachPlayer) {
-        String[] info = data.split(":");
-        String playerName = info[0];
-        int playerScore = Integer.parseInt(info[1]);
-
-        if(info[2].equals("DEAD")) {
-          if(!(nameAlreadySavedInList(playerName))){
-            onlineScoreListToSend.add(new Pair<>(playerName, playerScore));
+      for (var entry : scores.entries()) {
+        if(entry.isDead()) {
+          if(!(nameAlreadySavedInList(entry.name()))){
+            onlineScoreListToSend.add(new Pair<>(entry.name(), entry.score()));
           }
         }
 
-        playerScoresMap.put(playerName, playerScore);
+        playerScoresMap.put(entry.name(), entry.score());
       }
-        onlineScorelist.clear();
+      onlineScorelist.clear();
       for (Map.Entry<String, Integer> entry : playerScoresMap.entrySet()) {
         String playerName = entry.getKey();
         int playerScore = entry.getValue();
@@ -151,12 +162,8 @@ public class MultiplayerGame extends Game {
         // Add the player name and score to the onlineScorelist
         onlineScorelist.add(new Pair<>(playerName, playerScore));
       }
-    }
-
-
-
-    else if(message.startsWith("MSG")) {
-      Text text = new Text(message.substring(4) + "\n");
+    } else if (message instanceof Message.Chat chat) {
+      Text text = new Text(chat.sender() + ":" + chat.text() + "\n");
       scrollPane.setContent(text);
     }
 
@@ -179,50 +186,54 @@ public class MultiplayerGame extends Game {
   }
 
 
-  /**
-   * Moves the game to the next piece in the sequence.
-   * If the piece queue is not empty, the current piece is replaced with the next piece in the queue,
-   * This method overrides a superclass method.
-   */
-  @Override
-  public void nextPiece() {
-    if (!pieceQueue.isEmpty()) {
-      currentPiece = followingPiece;
-      followingPiece = followingPiece();
-      logger.info("next Piece is : {}", currentPiece);
-      callToListener();
-    }
-  }
-
   /**
    * This method pulls a piece form the pieceQueue and sets it as the following piece, and requests
-   * for a new piece.
-   * @return the piece to be set as the following piece
+   * pieces to refill the queue. If the server has not kept up and the queue is empty, no piece is
+   * given, and the engine is dealt it when it arrives.
+   * @return the piece to be set as the following piece, or null if none has arrived
    */
-  @Override
-  public GamePiece followingPiece() {
+  private GamePiece followingPiece() {
     GamePiece piece = pieceQueue.poll();
     requestPiecesFromServer();
     logger.debug("Inside the following Piece method and the current piece Being Retrieved is: {} ", piece);
     return piece;
   }
 
+  /**
+   * Note that the server needs the new score, board and lives once the placement is over
+   * @param piece the piece placed
+   * @param x column of the centre of the piece
+   * @param y row of the centre of the piece
+   */
+  @Override
+  public void piecePlaced(GamePiece piece, int x, int y) {
+    super.piecePlaced(piece, x, y);
+    updateWaiting = true;
+  }
 
   /**
-   * This method requests for piece from the server, and calls the super method.
-   * This method overrides a superclass method.
-   * @param x x coordinate of where the block is to be played
-   * @param y y coordinate of where the block is to be played
-   * @return if the block has been played or not
+   * Note that the server needs the new lives, whether the life ran out on a timeout or otherwise
+   * @param lives the lives left
    */
   @Override
-  protected boolean playingPiece(int x, int y) {
-    requestPiecesFromServer();
-    /**
-     *Used to
-     */
-    return super.playingPiece(x,y);
+  public void lifeLost(int lives) {
+    super.lifeLost(lives);
+    updateWaiting = true;
+  }
 
+  /**
+   * Copy the engine state into the game, then send the server the score, board and lives if a piece was
+   * placed or a life lost
+   */
+  @Override
+  public void stateChanged() {
+    super.stateChanged();
+    if(!updateWaiting) return;
+    updateWaiting = false;
+    logger.info("Sending Score");
+    communicator.send("SCORE " + getScore());
+    communicator.send(boardValues());
+    communicator.send("LIVES " + getLives());
   }
 
   /**
@@ -256,16 +267,6 @@ public class MultiplayerGame extends Game {
     return toSnend;
   }
 
-  /**
-   * Updates the pieces after the game timer has ended
-   */
-  @Override
-  public void timerEndGamePieceUpdate() {
-    currentPiece = followingPiece;
-    followingPiece = followingPiece();
-
-  }
-
   /**
    * returns the onlineScoreList
    * @return returns the onlineScoreList
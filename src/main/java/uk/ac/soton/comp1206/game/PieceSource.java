@@ -0,0 +1,13 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * A PieceSource provides the sequence of pieces to a GameEngine.
+ */
+public interface PieceSource {
+
+    /**
+     * Get the next piece to be played
+     * @return the next piece, or null if no piece is available yet
+     */
+    public GamePiece nextPiece();
+}
@@ -0,0 +1,83 @@
+package uk.ac.soton.comp1206.game;
+
+/**
+ * Placements holds every legal position for one piece on a grid, for each of its four rotations. A position is the
+ * centre block of the piece, the same x and y that {@link Grid#canPlayPiece(GamePiece, int, int)} takes.
+ *
+ * A Placements is filled by {@link Grid#legalPlacements(GamePiece, Placements)} and can be reused for any number of
+ * calls on grids of the same size.
+ */
+public class Placements {
+
+    /**
+     * The legal positions for each rotation, indexed by rotation
+     */
+    private final CellMask[] rotations = new CellMask[GamePiece.ROTATIONS];
+
+    /**
+     * The piece number these placements were last worked out for, or -1 if never filled
+     */
+    private int piece = -1;
+
+    /**
+     * Create an empty set of placements for a grid of the given size
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public Placements(int cols, int rows) {
+        for(int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+            rotations[rotation] = new CellMask(cols, rows);
+        }
+    }
+
+    /**
+     * Forget all positions and record which piece is about to be filled in
+     * @param piece piece number
+     */
+    void reset(int piece) {
+        this.piece = piece;
+        for(var positions : rotations) {
+            positions.clear();
+        }
+    }
+
+    /**
+     * Get the legal positions of the piece in the given rotation
+     * @param rotation rotation of the piece, from 0 to 3, the same as {@link GamePiece#getRotation()}
+     * @return the positions, which must not be modified
+     */
+    public CellMask get(int rotation) {
+        return rotations[Math.floorMod(rotation, GamePiece.ROTATIONS)];
+    }
+
+    /**
+     * Get the piece number these placements are for
+     * @return piece number, or -1 if they have not been filled in yet
+     */
+    public int getPiece() {
+        return piece;
+    }
+
+    /**
+     * Get the total number of legal positions across all rotations
+     * @return number of positions
+     */
+    public int size() {
+        int size = 0;
+        for(var positions : rotations) {
+            size += positions.size();
+        }
+        return size;
+    }
+
+    /**
+     * Check if the piece cannot be played anywhere in any rotation
+     * @return true if there is no legal position
+     */
+    public boolean isEmpty() {
+        for(var positions : rotations) {
+            if(!positions.isEmpty()) return false;
+        }
+        return true;
+    }
+}
@@ -5,6 +5,7 @@ import javafx.scene.control.Alert;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.event.CommunicationsListener;
+import uk.ac.soton.comp1206.event.MessageListener;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,6 +24,11 @@ public class Communicator {
      */
     private final List<CommunicationsListener> handlers = new ArrayList<>();
 
+    /**
+     * Attached message listeners. Each will be sent every message, decoded once for all of them.
+     */
+    private final List<MessageListener> messageHandlers = new ArrayList<>();
+
     private WebSocket ws = null;
 
     /**
@@ -100,11 +106,20 @@ public class Communicator {
         this.handlers.add(listener);
     }
 
+    /**
+     * Add a new listener to receive decoded messages from the server
+     * @param listener the listener to add
+     */
+    public void addMessageListener(MessageListener listener) {
+        this.messageHandlers.add(listener);
+    }
+
     /**
      * Clear all current listeners
      */
     public void clearListeners() {
         this.handlers.clear();
+        this.messageHandlers.clear();
     }
 
     /** Receive a message from the server. Relay to any attached listeners
@@ -118,6 +133,18 @@ public class Communicator {
         for(CommunicationsListener handler : handlers) {
             handler.receiveCommunication(message);
         }
+
+        if(messageHandlers.isEmpty()) return;
+        Message decoded;
+        try {
+            decoded = MessageCodec.decode(message);
+        } catch (IllegalArgumentException e) {
+            logger.error("Could not decode message: " + e.getMessage());
+            return;
+        }
+        for(MessageListener handler : messageHandlers) {
+            handler.receiveMessage(decoded);
+        }
     }
 
 }
@@ -0,0 +1,120 @@
+package uk.ac.soton.comp1206.network;
+
+import java.util.List;
+
+/**
+ * A message received from the TetrECS server, decoded by the {@link MessageCodec}.
+ *
+ * Each command the game understands has a record of its own, so listeners can check which message they have been given
+ * and read its fields without parsing the text again. Anything else is kept as an {@link Other}.
+ */
+public sealed interface Message {
+
+    /**
+     * The next piece to play: PIECE value
+     * @param value the number of the piece
+     */
+    record Piece(int value) implements Message {
+    }
+
+    /**
+     * The scores of the players in a multiplayer game: SCORES name:score:lives, one player per line
+     * @param entries the players, in the order sent
+     */
+    record Scores(List<Entry> entries) implements Message {
+
+        /**
+         * The score of one player
+         * @param name the name of the player
+         * @param score the score
+         * @param lives the lives left, or DEAD if the player is out
+         */
+        public record Entry(String name, int score, String lives) {
+
+            /**
+             * Check if the player is out of the game
+             * @return true if the player has died
+             */
+            public boolean isDead() {
+                return "DEAD".equals(lives);
+            }
+        }
+    }
+
+    /**
+     * The online high scores: HISCORES name:score, one score per line
+     * @param entries the scores, in the order sent
+     */
+    record HiScores(List<Entry> entries) implements Message {
+
+        /**
+         * One high score
+         * @param name the name of the player
+         * @param score the score
+         */
+        public record Entry(String name, int score) {
+        }
+    }
+
+    /**
+     * The channels open to join: CHANNELS name, one channel per line
+     * @param names the channels, empty if there are none
+     */
+    record Channels(List<String> names) implements Message {
+    }
+
+    /**
+     * The players in the channel: USERS name, one player per line
+     * @param names the players
+     */
+    record Users(List<String> names) implements Message {
+    }
+
+    /**
+     * A chat message: MSG sender:text
+     * @param sender the name of the player who sent it
+     * @param text what was said
+     */
+    record Chat(String sender, String text) implements Message {
+    }
+
+    /**
+     * A channel has been joined: JOIN channel
+     * @param channel the channel
+     */
+    record Join(String channel) implements Message {
+    }
+
+    /**
+     * The game in the channel is starting: START
+     */
+    record Start() implements Message {
+
+        /**
+         * The only start message needed, as it has nothing in it
+         */
+        public static final Start INSTANCE = new Start();
+    }
+
+    /**
+     * The server refused a request: ERROR reason
+     * @param reason why it was refused
+     */
+    record ServerError(String reason) implements Message {
+    }
+
+    /**
+     * A nickname has been set: NICK name
+     * @param name the nickname
+     */
+    record Nick(String name) implements Message {
+    }
+
+    /**
+     * Any other command, kept as it was sent
+     * @param command the command
+     * @param body everything after the command, or an empty string
+     */
+    record Other(String command, String body) implements Message {
+    }
+}
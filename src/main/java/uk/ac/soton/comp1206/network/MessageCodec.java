@@ -0,0 +1,242 @@
+package uk.ac.soton.comp1206.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The MessageCodec decodes the text sent by the TetrECS server into {@link Message}s.
+ *
+ * A message is read in one pass from start to end. The command is matched in place, numbers are read straight from the
+ * characters, and the only strings created are the names and text the message carries. Lines which are empty, such as
+ * a trailing newline, are skipped.
+ */
+public final class MessageCodec {
+
+    /**
+     * Not to be created
+     */
+    private MessageCodec() {
+    }
+
+    /**
+     * Decode a message from the server
+     * @param message the text received
+     * @return the message
+     * @throws IllegalArgumentException if the message is not in the form its command needs
+     */
+    public static Message decode(String message) {
+        var scanner = new Scanner(message);
+        if(scanner.command("PIECE")) {
+            return new Message.Piece(scanner.integer());
+        }
+        if(scanner.command("SCORES")) {
+            var entries = new ArrayList<Message.Scores.Entry>();
+            while(scanner.nextLine()) {
+                var name = scanner.until(':');
+                int score = scanner.integer();
+                scanner.expect(':');
+                entries.add(new Message.Scores.Entry(name, score, scanner.until('\n')));
+            }
+            return new Message.Scores(Collections.unmodifiableList(entries));
+        }
+        if(scanner.command("HISCORES")) {
+            var entries = new ArrayList<Message.HiScores.Entry>();
+            while(scanner.nextLine()) {
+                var name = scanner.until(':');
+                entries.add(new Message.HiScores.Entry(name, scanner.integer()));
+                scanner.expect('\n');
+            }
+            return new Message.HiScores(Collections.unmodifiableList(entries));
+        }
+        if(scanner.command("CHANNELS")) {
+            return new Message.Channels(scanner.lines());
+        }
+        if(scanner.command("USERS")) {
+            return new Message.Users(scanner.lines());
+        }
+        if(scanner.command("MSG")) {
+            var sender = scanner.until(':');
+            return new Message.Chat(sender, scanner.rest());
+        }
+        if(scanner.command("JOIN")) {
+            return new Message.Join(scanner.rest());
+        }
+        if(scanner.command("START")) {
+            return Message.Start.INSTANCE;
+        }
+        if(scanner.command("ERROR")) {
+            return new Message.ServerError(scanner.rest());
+        }
+        if(scanner.command("NICK")) {
+            return new Message.Nick(scanner.rest());
+        }
+        var command = scanner.word();
+        return new Message.Other(command, scanner.rest());
+    }
+
+    /**
+     * Reads a message from start to end
+     */
+    private static final class Scanner {
+
+        /**
+         * The message
+         */
+        private final String text;
+
+        /**
+         * Where the message ends, leaving out trailing whitespace
+         */
+        private final int end;
+
+        /**
+         * The position of the next character to read
+         */
+        private int position;
+
+        /**
+         * Create a scanner at the start of a message
+         * @param text the message
+         */
+        Scanner(String text) {
+            this.text = text;
+            int end = text.length();
+            while(end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+                end--;
+            }
+            this.end = end;
+        }
+
+        /**
+         * Check if the message starts with a command, and move past it and the space after it if so
+         * @param command the command
+         * @return true if the message is that command
+         */
+        boolean command(String command) {
+            int length = command.length();
+            if(!text.startsWith(command)) return false;
+            if(length < end && text.charAt(length) != ' ') return false;
+            position = Math.min(end, length + 1);
+            return true;
+        }
+
+        /**
+         * Move past any empty lines
+         * @return true if there is another line to read
+         */
+        boolean nextLine() {
+            while(position < end && text.charAt(position) == '\n') {
+                position++;
+            }
+            return position < end;
+        }
+
+        /**
+         * Read up to a character and move past it. Only the current line is searched; a line may end at the end of
+         * the message instead of a newline.
+         * @param delimiter the character
+         * @return what was read
+         * @throws IllegalArgumentException if the character is not on the current line
+         */
+        String until(char delimiter) {
+            int start = position;
+            int found = lineEnd();
+            if(delimiter != '\n') {
+                int index = text.indexOf(delimiter, start);
+                if(index < 0 || index > found) {
+                    throw new IllegalArgumentException("Expected '" + delimiter + "' after " + start + " in: " + text);
+                }
+                found = index;
+            }
+            position = Math.min(end, found + 1);
+            return text.substring(start, found);
+        }
+
+        /**
+         * Read up to a space or the end of the line, and move past it
+         * @return what was read
+         */
+        String word() {
+            int start = position;
+            int found = lineEnd();
+            int space = text.indexOf(' ', start);
+            if(space >= 0 && space < found) {
+                found = space;
+            }
+            position = Math.min(end, found + 1);
+            return text.substring(start, found);
+        }
+
+        /**
+         * Find where the current line ends
+         * @return the position of the next newline, or the end of the message
+         */
+        private int lineEnd() {
+            int found = text.indexOf('\n', position);
+            return found < 0 || found > end ? end : found;
+        }
+
+        /**
+         * Read everything left
+         * @return what was read, or an empty string
+         */
+        String rest() {
+            var rest = text.substring(position, end);
+            position = end;
+            return rest;
+        }
+
+        /**
+         * Read every line left, skipping empty ones
+         * @return the lines
+         */
+        List<String> lines() {
+            if(!nextLine()) return List.of();
+            var lines = new ArrayList<String>();
+            do {
+                lines.add(until('\n'));
+            } while(nextLine());
+            return Collections.unmodifiableList(lines);
+        }
+
+        /**
+         * Read a whole number, with an optional minus sign
+         * @return the number
+         * @throws IllegalArgumentException if there is no number
+         */
+        int integer() {
+            boolean negative = position < end && text.charAt(position) == '-';
+            int start = negative ? position + 1 : position;
+            int index = start;
+            long value = 0;
+            while(index < end) {
+                int digit = text.charAt(index) - '0';
+                if(digit < 0 || digit > 9) break;
+                value = value * 10 + digit;
+                if(value > Integer.MAX_VALUE + 1L) {
+                    throw new IllegalArgumentException("Number too large at " + start + " in: " + text);
+                }
+                index++;
+            }
+            if(index == start || (!negative && value > Integer.MAX_VALUE)) {
+                throw new IllegalArgumentException("Expected a number at " + start + " in: " + text);
+            }
+            position = index;
+            return (int) (negative ? -value : value);
+        }
+
+        /**
+         * Move past a character, which must come next unless the message has ended
+         * @param expected the character
+         * @throws IllegalArgumentException if a different character comes next
+         */
+        void expect(char expected) {
+            if(position >= end) return;
+            if(text.charAt(position) != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' at " + position + " in: " + text);
+            }
+            position++;
+        }
+    }
+}
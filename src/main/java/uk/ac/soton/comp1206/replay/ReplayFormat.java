@@ -0,0 +1,104 @@
+package uk.ac.soton.comp1206.replay;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The layout of a replay file, shared by the writer and the reader.
+ *
+ * A replay starts with the magic bytes "TRPL", then the format version, the number of columns and rows and the seed of
+ * the game. After that every input is a single varint: the low three bits are the kind of input and the rest is its
+ * argument, the block index (y * cols + x) for a placement or the zigzag encoded number of rotations for a rotation.
+ * A finished game ends with an END input followed by the final score, level and lives, so a replay can check that
+ * playing it again gives the same result.
+ *
+ * Varints are unsigned LEB128, seven bits per byte with the high bit set on every byte but the last.
+ */
+final class ReplayFormat {
+
+    /**
+     * The bytes every replay starts with
+     */
+    static final byte[] MAGIC = {'T', 'R', 'P', 'L'};
+
+    /**
+     * The version of the format written
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The kinds of input
+     */
+    static final int PLACE = 0;
+    static final int ROTATE = 1;
+    static final int SWAP = 2;
+    static final int SKIP = 3;
+    static final int TIMEOUT = 4;
+    static final int END = 5;
+
+    /**
+     * The number of low bits of an input holding its kind
+     */
+    static final int KIND_BITS = 3;
+
+    /**
+     * Not to be created
+     */
+    private ReplayFormat() {
+    }
+
+    /**
+     * Write an unsigned varint
+     * @param out where to write it
+     * @param value the value, treated as unsigned
+     * @throws IOException if writing fails
+     */
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Read an unsigned varint
+     * @param in where to read it from
+     * @return the value
+     * @throws EOFException if the stream ends before the first byte
+     * @throws IOException if reading fails or the varint is cut off or too long
+     */
+    static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if(b < 0) {
+                if(shift == 0) throw new EOFException();
+                throw new IOException("Replay ends in the middle of a value");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Varint too long");
+    }
+
+    /**
+     * Map a signed value onto an unsigned one, so small negative numbers stay short
+     * @param value the signed value
+     * @return the zigzag encoded value
+     */
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Undo {@link #zigzag(long)}
+     * @param value the zigzag encoded value
+     * @return the signed value
+     */
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,192 @@
+package uk.ac.soton.comp1206.replay;
+
+import uk.ac.soton.comp1206.game.GameEngine;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static uk.ac.soton.comp1206.replay.ReplayFormat.*;
+
+/**
+ * The ReplayReader plays a replay again on a new GameEngine, with no display and no timer, as fast as the engine can
+ * go. A replay which was finished also records the final score, level and lives to check the result against.
+ */
+public class ReplayReader {
+
+    /**
+     * Where the replay is read from
+     */
+    private final InputStream in;
+
+    /**
+     * The number of columns in the game
+     */
+    private final int cols;
+
+    /**
+     * The number of rows in the game
+     */
+    private final int rows;
+
+    /**
+     * The seed of the game
+     */
+    private final long seed;
+
+    /**
+     * The number of inputs played so far
+     */
+    private int inputs = 0;
+
+    /**
+     * Whether the replay ended with the final state of the game
+     */
+    private boolean complete = false;
+
+    /**
+     * The final state recorded at the end of the replay, if it is complete
+     */
+    private int expectedScore, expectedLevel, expectedLives;
+
+    /**
+     * Open a replay and read its header
+     * @param in where to read the replay from
+     * @throws IOException if the replay cannot be read, is not a replay or has a grid size no grid can have
+     */
+    public ReplayReader(InputStream in) throws IOException {
+        this.in = new BufferedInputStream(in);
+        var magic = this.in.readNBytes(MAGIC.length);
+        if(!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a replay");
+        }
+        long version = readVarint(this.in);
+        if(version != VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        long cols = readVarint(this.in);
+        long rows = readVarint(this.in);
+        if(cols <= 0 || rows <= 0 || cols > Grid.MAX_CELLS || rows > Grid.MAX_CELLS
+                || cols * rows > Grid.MAX_CELLS) {
+            throw new IOException("Corrupt replay: grid of " + cols + " x " + rows);
+        }
+        this.cols = (int) cols;
+        this.rows = (int) rows;
+        seed = unzigzag(readVarint(this.in));
+    }
+
+    /**
+     * Play every input of the replay on a new engine
+     * @return the engine, in the state the game was in at the end of the replay
+     * @throws IOException if the replay cannot be read or is corrupt
+     */
+    public GameEngine replay() throws IOException {
+        var engine = new GameEngine(cols, rows, seed);
+        engine.start();
+        while(true) {
+            long input;
+            try {
+                input = readVarint(in);
+            } catch (EOFException e) {
+                //Not finished, the game was probably closed or crashed
+                return engine;
+            }
+            long argument = input >>> KIND_BITS;
+            switch ((int) (input & ((1 << KIND_BITS) - 1))) {
+                case PLACE -> engine.place((int) (argument % cols), (int) (argument / cols));
+                case ROTATE -> engine.rotate((int) unzigzag(argument));
+                case SWAP -> engine.swap();
+                case SKIP -> engine.skip();
+                case TIMEOUT -> engine.timeout();
+                case END -> {
+                    expectedScore = (int) readVarint(in);
+                    expectedLevel = (int) readVarint(in);
+                    expectedLives = (int) unzigzag(readVarint(in));
+                    complete = true;
+                    return engine;
+                }
+                default -> throw new IOException("Unknown input " + input + " after " + inputs + " inputs");
+            }
+            inputs++;
+        }
+    }
+
+    /**
+     * Check if the replay played again gives the result that was recorded
+     * @param engine the engine returned by {@link #replay()}
+     * @return true if the replay is complete and the score, level and lives match
+     */
+    public boolean matches(GameEngine engine) {
+        return complete
+                && engine.getScore() == expectedScore
+                && engine.getLevel() == expectedLevel
+                && engine.getLives() == expectedLives;
+    }
+
+    /**
+     * Get the number of columns in the game
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Get the number of rows in the game
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the seed of the game
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Get the number of inputs played
+     * @return number of inputs
+     */
+    public int getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Check if the replay ended with the final state of the game
+     * @return true if the game was finished
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Get the score recorded at the end of the replay
+     * @return score, or 0 if the replay is not complete
+     */
+    public int getExpectedScore() {
+        return expectedScore;
+    }
+
+    /**
+     * Get the level recorded at the end of the replay
+     * @return level, or 0 if the replay is not complete
+     */
+    public int getExpectedLevel() {
+        return expectedLevel;
+    }
+
+    /**
+     * Get the lives recorded at the end of the replay
+     * @return lives, or 0 if the replay is not complete
+     */
+    public int getExpectedLives() {
+        return expectedLives;
+    }
+}
@@ -0,0 +1,104 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The ReplayStore decides whether games are recorded, and where.
+ *
+ * Recording is off unless the system property tetrecs.replays names the directory to record into, for example
+ * -Dtetrecs.replays=replays. Only the newest replays in the directory are kept, 20 unless the system property
+ * tetrecs.replays.keep says otherwise; the oldest are deleted as each new replay is started.
+ */
+public final class ReplayStore {
+
+    /**
+     * used to log progress on terminal
+     */
+    private static final Logger logger = LogManager.getLogger(ReplayStore.class);
+
+    /**
+     * The system property naming the directory to record into
+     */
+    public static final String DIRECTORY_PROPERTY = "tetrecs.replays";
+
+    /**
+     * The system property giving the number of replays to keep
+     */
+    public static final String KEEP_PROPERTY = "tetrecs.replays.keep";
+
+    /**
+     * The number of replays kept if the system property does not say
+     */
+    private static final int DEFAULT_KEEP = 20;
+
+    /**
+     * The start of the name of every replay file
+     */
+    private static final String PREFIX = "game-";
+
+    /**
+     * The end of the name of every replay file
+     */
+    private static final String SUFFIX = ".replay";
+
+    /**
+     * Not to be created
+     */
+    private ReplayStore() {
+    }
+
+    /**
+     * Start recording a new replay, deleting the oldest replays so no more than the number to keep remain
+     * @param cols number of columns in the game
+     * @param rows number of rows in the game
+     * @param seed the seed of the game
+     * @return the replay to record into, or null if recording is off
+     * @throws IOException if the directory or the replay cannot be created
+     */
+    public static ReplayWriter start(int cols, int rows, long seed) throws IOException {
+        var name = System.getProperty(DIRECTORY_PROPERTY);
+        if(name == null || name.isBlank()) return null;
+
+        var directory = new File(name);
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create the replay directory " + directory);
+        }
+        prune(directory, Math.max(1, Integer.getInteger(KEEP_PROPERTY, DEFAULT_KEEP)) - 1);
+
+        var file = new File(directory, PREFIX + System.currentTimeMillis() + SUFFIX);
+        var out = new FileOutputStream(file);
+        try {
+            var replay = new ReplayWriter(out, cols, rows, seed);
+            logger.info("Recording replay to {}", file);
+            return replay;
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Delete the oldest replays in a directory until only a number of them are left
+     * @param directory the directory
+     * @param keep how many replays to leave
+     */
+    private static void prune(File directory, int keep) {
+        var files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if(files == null || files.length <= keep) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+        for(int i = 0; i < files.length - keep; i++) {
+            if(files[i].delete()) {
+                logger.debug("Deleted old replay {}", files[i]);
+            } else {
+                logger.warn("Could not delete old replay {}", files[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package uk.ac.soton.comp1206.replay;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.event.GameInputListener;
+import uk.ac.soton.comp1206.game.GameEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static uk.ac.soton.comp1206.replay.ReplayFormat.*;
+
+/**
+ * The ReplayWriter records every input to a GameEngine as a replay. Set it as the input listener of the engine and
+ * call {@link #finish(GameEngine)} when the game is over.
+ *
+ * Each input is flushed as it is recorded, so a replay survives the game crashing. If writing fails the error is
+ * logged and recording stops, the game carries on.
+ */
+public class ReplayWriter implements GameInputListener {
+
+    /**
+     * used to log progress on terminal
+     */
+    private static final Logger logger = LogManager.getLogger(ReplayWriter.class);
+
+    /**
+     * Where the replay is written, null once finished or failed
+     */
+    private OutputStream out;
+
+    /**
+     * The number of columns in the game
+     */
+    private final int cols;
+
+    /**
+     * Create a new replay and write its header
+     * @param out where to write the replay, closed when the replay is finished
+     * @param cols number of columns in the game
+     * @param rows number of rows in the game
+     * @param seed the seed of the game
+     * @throws IOException if the header cannot be written
+     */
+    public ReplayWriter(OutputStream out, int cols, int rows, long seed) throws IOException {
+        this.out = new BufferedOutputStream(out);
+        this.cols = cols;
+        this.out.write(MAGIC);
+        writeVarint(this.out, VERSION);
+        writeVarint(this.out, cols);
+        writeVarint(this.out, rows);
+        writeVarint(this.out, zigzag(seed));
+        this.out.flush();
+    }
+
+    /**
+     * Record a placement
+     * @param x column
+     * @param y row
+     */
+    @Override
+    public void placeRequested(int x, int y) {
+        record(PLACE, (long) y * cols + x);
+    }
+
+    /**
+     * Record a rotation
+     * @param rotations number of rotations
+     */
+    @Override
+    public void rotateRequested(int rotations) {
+        record(ROTATE, zigzag(rotations));
+    }
+
+    /**
+     * Record a swap
+     */
+    @Override
+    public void swapRequested() {
+        record(SWAP, 0);
+    }
+
+    /**
+     * Record a skip
+     */
+    @Override
+    public void skipRequested() {
+        record(SKIP, 0);
+    }
+
+    /**
+     * Record a timeout
+     */
+    @Override
+    public void timeoutReached() {
+        record(TIMEOUT, 0);
+    }
+
+    /**
+     * Write one input
+     * @param kind the kind of input
+     * @param argument the argument of the input
+     */
+    private void record(int kind, long argument) {
+        if(out == null) return;
+        try {
+            writeVarint(out, argument << KIND_BITS | kind);
+            out.flush();
+        } catch (IOException e) {
+            logger.error("Could not record the replay, recording stopped: {}", e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * End the replay with the final state of the game and close it. Does nothing if already finished.
+     * @param engine the engine that was recorded
+     */
+    public void finish(GameEngine engine) {
+        if(out == null) return;
+        try {
+            writeVarint(out, END);
+            writeVarint(out, engine.getScore());
+            writeVarint(out, engine.getLevel());
+            writeVarint(out, zigzag(engine.getLives()));
+        } catch (IOException e) {
+            logger.error("Could not finish the replay: {}", e.getMessage());
+        }
+        close();
+    }
+
+    /**
+     * Close the replay without ending it. Does nothing if already closed.
+     */
+    public void close() {
+        if(out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.error("Could not close the replay: {}", e.getMessage());
+        }
+        out = null;
+    }
+}
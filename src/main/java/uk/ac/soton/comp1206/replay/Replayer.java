@@ -0,0 +1,53 @@
+package uk.ac.soton.comp1206.replay;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Plays replay files again with no display and checks each one ends with the score, level and lives that were
+ * recorded. Exits with status 1 if any replay cannot be read or does not match.
+ *
+ * Usage: Replayer file...
+ */
+public class Replayer {
+
+    /**
+     * Play the replay files given on the command line
+     * @param args the replay files
+     */
+    public static void main(String[] args) {
+        if(args.length == 0) {
+            System.err.println("Usage: Replayer file...");
+            System.exit(2);
+        }
+
+        boolean failed = false;
+        long inputs = 0;
+        long start = System.nanoTime();
+        for(String file : args) {
+            try (var in = new FileInputStream(file)) {
+                var reader = new ReplayReader(in);
+                var engine = reader.replay();
+                inputs += reader.getInputs();
+                String result;
+                if(!reader.isComplete()) {
+                    result = "INCOMPLETE";
+                } else if(reader.matches(engine)) {
+                    result = "OK";
+                } else {
+                    result = "MISMATCH expected score " + reader.getExpectedScore() + " level "
+                            + reader.getExpectedLevel() + " lives " + reader.getExpectedLives();
+                    failed = true;
+                }
+                System.out.println(file + ": " + reader.getInputs() + " inputs, score " + engine.getScore()
+                        + " level " + engine.getLevel() + " lives " + engine.getLives() + " " + result);
+            } catch (IOException e) {
+                System.out.println(file + ": " + e.getMessage());
+                failed = true;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println(args.length + " replays, " + inputs + " inputs in " + elapsed / 1_000_000 + "ms");
+        System.exit(failed ? 1 : 0);
+    }
+}
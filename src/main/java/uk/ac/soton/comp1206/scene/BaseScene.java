@@ -1,9 +1,12 @@
 package uk.ac.soton.comp1206.scene;
 
+import javafx.event.EventHandler;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.paint.Color;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.ui.ResourceCache;
 
 /**
  * A Base Scene used in the game. Handles common functionality between all scenes.
@@ -25,6 +28,11 @@ public abstract class BaseScene {
      */
     protected Scene scene;
 
+    /**
+     * The key handler added to the scene, or null
+     */
+    private EventHandler<KeyEvent> keyHandler;
+
     /**
      * Create a new scene, passing in the GameWindow the scene will be displayed in
      * @param gameWindow the game window
@@ -34,10 +42,33 @@ public abstract class BaseScene {
     }
 
     /**
-     * Initialise this scene. Called after creation
+     * Initialise this scene. Called each time the scene is shown, which may be more than once for a scene which is
+     * reused
      */
     public abstract void initialise();
 
+    /**
+     * Called when another scene is shown instead of this one. Scenes which are reused stop anything they are running.
+     */
+    public void hide() {
+    }
+
+    /**
+     * Get the music to play while this scene is shown. Scenes with the same music carry it on between them.
+     * @return the name of the track in the music folder, or null to leave the music as it is
+     */
+    public String getMusic() {
+        return null;
+    }
+
+    /**
+     * Get the music of the scene most likely to be shown after this one, so it can be loaded while this one is shown
+     * @return the name of the track in the music folder, or null if there is nothing to load
+     */
+    public String getNextMusic() {
+        return null;
+    }
+
     /**
      * Build the layout of the scene
      */
@@ -50,11 +81,32 @@ public abstract class BaseScene {
     public Scene setScene() {
         var previous = gameWindow.getScene();
         Scene scene = new Scene(root, previous.getWidth(), previous.getHeight(), Color.BLACK);
-        scene.getStylesheets().add(getClass().getResource("/style/game.css").toExternalForm());
+        scene.getStylesheets().add(ResourceCache.getStylesheet());
+        root.setOnScaleChanged(this::scaleChanged);
         this.scene = scene;
         return scene;
     }
 
+    /**
+     * Called once the window has settled at a new scale. Scenes with boards draw them again at the new scale; text
+     * and shapes are drawn by JavaFX at whatever scale they are shown, so need nothing.
+     * @param scalar the new scale
+     */
+    protected void scaleChanged(double scalar) {
+    }
+
+    /**
+     * Handle key presses in the scene, replacing the handler set before so a scene shown again never has two
+     * @param handler the key handler
+     */
+    protected void setKeyHandler(EventHandler<KeyEvent> handler) {
+        if(keyHandler != null) {
+            scene.removeEventHandler(KeyEvent.KEY_PRESSED, keyHandler);
+        }
+        keyHandler = handler;
+        scene.addEventHandler(KeyEvent.KEY_PRESSED, handler);
+    }
+
     /**
      * Get the JavaFX scene contained inside
      * @return JavaFX scene
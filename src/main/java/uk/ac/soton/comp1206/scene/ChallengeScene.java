@@ -1,26 +1,25 @@
 package uk.ac.soton.comp1206.scene;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.KeyValue;
-import javafx.animation.Timeline;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.geometry.Pos;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
-import javafx.util.Duration;
 import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.Media.Multimedia;
 import uk.ac.soton.comp1206.component.GameBlock;
-import uk.ac.soton.comp1206.component.GameBlockCoordinate;
+import uk.ac.soton.comp1206.component.CanvasGameBoard;
 import uk.ac.soton.comp1206.component.GameBoard;
+import uk.ac.soton.comp1206.component.PerformanceHud;
 import uk.ac.soton.comp1206.component.PieceBoard;
+import uk.ac.soton.comp1206.component.TimerBar;
+import uk.ac.soton.comp1206.component.ViewportGameBoard;
+import uk.ac.soton.comp1206.game.CellMask;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.game.MultiplayerGame;
@@ -28,7 +27,6 @@ import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 
 import java.io.*;
-import java.util.HashSet;
 import java.util.Objects;
 
 import static javafx.scene.input.KeyCode.*;
@@ -45,11 +43,31 @@ public class ChallengeScene extends BaseScene {
    */
   protected static final Logger logger = LogManager.getLogger(MenuScene.class);
 
+  /**
+   * The size of the board in endurance mode
+   */
+  public static final int ENDURANCE_SIZE = 1000;
+
+  /**
+   * Boards with more columns or rows than this are drawn through a viewport which can be moved and zoomed
+   */
+  private static final int VIEWPORT_THRESHOLD = 20;
+
   /**
    * The Game instance for this scene
    */
   Game game;
 
+  /**
+   * The number of columns in the board
+   */
+  protected final int cols;
+
+  /**
+   * The number of rows in the board
+   */
+  protected final int rows;
+
   /**
    * The pieceBoard instance to display the current piece
    */
@@ -125,12 +143,6 @@ public class ChallengeScene extends BaseScene {
    */
   protected GameBoard board;
 
-  /**
-   * TimeLine instance to add animations
-   */
-  protected Timeline timeline;
-
-
   /**
    * Returns the BorderPane
    * @return the mainPane
@@ -153,14 +165,19 @@ public class ChallengeScene extends BaseScene {
   }
 
   /**
-   * The timeBar rectangle
+   * The timeBar showing the time left to play the current piece
    */
-  protected Rectangle timerBar;
+  protected TimerBar timerBar;
   /**
    * The stackPane instance of this class
    */
   protected StackPane challengePane;
 
+  /**
+   * The performance HUD, toggled with F3
+   */
+  protected PerformanceHud hud;
+
   /**
    * boolean to see if the game Has not shut down
    */
@@ -171,11 +188,31 @@ public class ChallengeScene extends BaseScene {
      * @param gameWindow the Game Window
      */
     public ChallengeScene(GameWindow gameWindow) {
-        super(gameWindow);
-        challengeModeText = new Text("Challenge Mode");
-        logger.info("Creating Challenge Scene");
+        this(gameWindow, 5, 5);
     }
 
+  /**
+   * Create a new Single Player challenge scene on a board of any size. Large boards are the endurance mode.
+   * @param gameWindow the Game Window
+   * @param cols number of columns in the board
+   * @param rows number of rows in the board
+   */
+  public ChallengeScene(GameWindow gameWindow, int cols, int rows) {
+    super(gameWindow);
+    this.cols = cols;
+    this.rows = rows;
+    challengeModeText = new Text(isLargeBoard() ? "Endurance Mode" : "Challenge Mode");
+    logger.info("Creating Challenge Scene: {} x {}", cols, rows);
+  }
+
+  /**
+   * Check if the board is too large to draw in full
+   * @return true if the board is drawn through a viewport
+   */
+  protected boolean isLargeBoard() {
+    return cols > VIEWPORT_THRESHOLD || rows > VIEWPORT_THRESHOLD;
+  }
+
     /**
      * Build the Challenge window
      */
@@ -196,7 +233,15 @@ public class ChallengeScene extends BaseScene {
          mainPane = new BorderPane();
         challengePane.getChildren().add(mainPane);
 
-        board = new GameBoard(game.getGrid(),gameWindow.getWidth()/2,gameWindow.getWidth()/2,true);
+        hud = new PerformanceHud();
+        StackPane.setAlignment(hud, Pos.BOTTOM_LEFT);
+        challengePane.getChildren().add(hud);
+
+        if (isLargeBoard()) {
+          board = new ViewportGameBoard(game.getGrid(),gameWindow.getWidth()/2,gameWindow.getWidth()/2,true);
+        } else {
+          board = new CanvasGameBoard(game.getGrid(),gameWindow.getWidth()/2,gameWindow.getWidth()/2,true);
+        }
         mainPane.setCenter(board);
 
         logger.debug("Before creating any pieceBoard");
@@ -215,7 +260,7 @@ public class ChallengeScene extends BaseScene {
         Text MultiplierText = new Text("Multiplier");
         MultiplierText.getStyleClass().add("hiscore");
         Text multiplier = new Text();
-        multiplier.textProperty().bind(Game.multiplierProperty().asString());
+        multiplier.textProperty().bind(game.multiplierProperty().asString());
         multiplier.getStyleClass().add("myscore");
 
         VBox multiplerBox = new VBox();
@@ -242,14 +287,14 @@ public class ChallengeScene extends BaseScene {
         Text levelText = new Text("Lvl");
         levelText.getStyleClass().add("hiscore");
         Text level = new Text();
-        level.textProperty().bind(Game.levelProperty().asString());
+        level.textProperty().bind(game.levelProperty().asString());
         level.getStyleClass().add("myscore");
 
         Text skipsRemaining = new Text("Skips:");
         skipsRemaining.getStyleClass().add("myscore");
         Text skip = new Text();
         skip.getStyleClass().add("myscore");
-        skip.textProperty().bind(Game.skipProperty().asString());
+        skip.textProperty().bind(game.skipProperty().asString());
         HBox hBox = new HBox();
         hBox.getChildren().addAll(skipsRemaining,skip);
         VBox vBox = new VBox();
@@ -275,7 +320,7 @@ public class ChallengeScene extends BaseScene {
         scoreText.getStyleClass().add("score");
         Text score = new Text();
         score.getStyleClass().add("myscore");
-        score.textProperty().bind(Game.scoreProperty().asString());
+        score.textProperty().bind(game.scoreProperty().asString());
 
         VBox scoreBox = new VBox();
         scoreBox.getChildren().addAll(scoreText,score);
@@ -285,7 +330,7 @@ public class ChallengeScene extends BaseScene {
         lifeText.getStyleClass().add("score");
         Text lives = new Text();
         lives.getStyleClass().add("myscore");
-        lives.textProperty().bind(Game.livesProperty().asString());
+        lives.textProperty().bind(game.livesProperty().asString());
 
         //Creating a Vbox to hold the Lifes property
         VBox livesBox = new VBox();
@@ -306,7 +351,7 @@ public class ChallengeScene extends BaseScene {
 //        VBox vbox = new VBox( );
 //        Text timerText  = new Text();
 
-        setTimeline();
+        timerBar = new TimerBar(game.getClock(), 800, 20);
         mainPane.setBottom(timerBar);
 
         //Handle block on gameboard grid being clicked
@@ -316,11 +361,7 @@ public class ChallengeScene extends BaseScene {
         secondPieceBoard.setOnBlockClick(this::swapPieces);
         board.setOnRightClicked(() -> game.rotateCurrentPiece());
         game.setLinesClearedListener(this::linesCleared);
-//        game.setOnGameLoop(this::setTimeline);
-       game.setOnGameLoop(() -> {
- //Start timer animation
-        resetTimerBar();
-         });
+        game.setOnGameOver(this::gameOver);
     }
 
   /**
@@ -340,60 +381,23 @@ public class ChallengeScene extends BaseScene {
   }
 
   /**
-   * Sets the timeLine for the timeBar animation and defines all the necessary Key Frames
+   * Ends the game once the player has run out of lives
    */
-  public void setTimeline() {
-        timerBar = new Rectangle(800, 20, Color.DARKGREEN);
-
-        timeline = new Timeline(
-                new KeyFrame(Duration.ZERO, new KeyValue(timerBar.widthProperty(),0)),
-
-
-                new KeyFrame(Duration.millis((double) game.getTimerDelay() /5),
-                                new KeyValue(timerBar.widthProperty(),160),
-                                new KeyValue(timerBar.fillProperty(), Color.LIGHTGREEN)),
-
-                new KeyFrame(Duration.millis((double) (game.getTimerDelay() * 2) /5),
-                                new KeyValue(timerBar.widthProperty(),320),
-                                new KeyValue(timerBar.fillProperty(), Color.GREEN)),
-
-                new KeyFrame(Duration.millis((double) (game.getTimerDelay() * 3) /5),
-                        new KeyValue(timerBar.widthProperty(),480),
-                        new KeyValue(timerBar.fillProperty(), Color.ORANGE)),
-
-                new KeyFrame(Duration.millis((double) (game.getTimerDelay() * 4) /5),
-                        new KeyValue(timerBar.widthProperty(),640),
-                        new KeyValue(timerBar.fillProperty(), Color.RED) ),
-
-                new KeyFrame(Duration.millis(game.getTimerDelay()),
-                        new KeyValue(timerBar.widthProperty(),800),
-                        new KeyValue(timerBar.fillProperty(), Color.DARKRED)),
-
-                new KeyFrame(Duration.ZERO, new KeyValue(timerBar.widthProperty(), 0)),
-
-                new KeyFrame(Duration.ZERO, actionEvent -> {
-                  if (Game.getLives() ==-1 && hasNotShutDownYet) {
-                      logger.debug("Inside The end KeyEvent in the timeBar Timeline value of boolean: {}", hasNotShutDownYet);
-                      hasNotShutDownYet = false;
-                      runOnce();
-                      Game.setLives(-2);
-                  }
-                })
-
-        );
-        timeline.setCycleCount(Animation.INDEFINITE);
-//        timeline.setOnFinished((e) -> {
-//          game.shutDown();
-//        });
-        timeline.play();
+  public void gameOver() {
+    if (hasNotShutDownYet) {
+      logger.debug("Game over, value of boolean: {}", hasNotShutDownYet);
+      hasNotShutDownYet = false;
+      runOnce();
     }
+  }
 
   protected void runOnce() {
     if (!methodCalled) {
       logger.debug("Inside RunOnce");
+      finishHud();
       callScoresScene();
       game.shutDown();
-      timeline.stop();
+      timerBar.stop();
       methodCalled = true;
     }
   }
@@ -410,41 +414,15 @@ public class ChallengeScene extends BaseScene {
    * @param gameBlock the Game Block that was clocked
    */
   public void blockClicked(GameBlock gameBlock) {
-    Boolean isPlaced= game.blockClicked(gameBlock);
-    blockPlayedTimerUpdated(isPlaced);
-  }
-
-  /**
-   * if the block isPlayed the timer is reset
-   * @param isPlaced if the block is played
-   */
-  public void blockPlayedTimerUpdated(Boolean isPlaced) {
-    if(isPlaced) {
-      resetTimerBar();
-    }
+    game.blockClicked(gameBlock);
   }
 
-  /**
-   *  Starts the timeLine
-   */
-  public void start() {
-        timeline.playFromStart();
-    }
-
-  /**
-   * Restarts the TimeLine
-   */
-  public void resetTimerBar() {
-        timeline.stop();
-            start();
-    }
-
   /**
    * Creates the LinesClear animation on the blocks when a line is cleared
-   * @param gameBlockCoordinates the coordinates of the blocks that are cleared
+   * @param clearedCells the blocks that are cleared
    */
-  public void linesCleared(HashSet<GameBlockCoordinate> gameBlockCoordinates) {
-        board.fadeOut(gameBlockCoordinates);
+  public void linesCleared(CellMask clearedCells) {
+        board.fadeOut(clearedCells);
     }
 
   /**
@@ -465,15 +443,27 @@ public class ChallengeScene extends BaseScene {
 
 
   /**
-   * Displays the provided piece on the pieceBoards
+   * Displays the provided piece on the pieceBoards, and previews it on the board
    * @param piece the first piece to display
    * @param secondPiece the following piece to display
    */
   public void displayBlock(GamePiece piece,GamePiece secondPiece) {
       pieceBaord.pieceToDisplay(piece);
       secondPieceBoard.pieceToDisplay(secondPiece);
+      board.setPreviewPiece(piece);
       logger.debug(" 1. Piece {} 2. Piece {}", piece.toString(), secondPiece.toString());
 
+  }
+
+  /**
+   * Draw the board and the piece boards again at the scale the window has settled at
+   * @param scalar the new scale
+   */
+  @Override
+  protected void scaleChanged(double scalar) {
+    board.setPixelScale(scalar);
+    pieceBaord.setPixelScale(scalar);
+    secondPieceBoard.setPixelScale(scalar);
   }
     /**
      * Setup the game object and model
@@ -481,7 +471,16 @@ public class ChallengeScene extends BaseScene {
     public void setupGame() {
         logger.info("Starting a new challenge");
         //Start new game
-        game = new Game(5, 5);
+        game = new Game(cols, rows);
+    }
+
+    /**
+     * Load the end of game music, as the scores follow the game
+     * @return the track
+     */
+    @Override
+    public String getNextMusic() {
+        return "end.wav";
     }
 
     /**
@@ -490,9 +489,12 @@ public class ChallengeScene extends BaseScene {
     @Override
     public void initialise() {
         logger.info("Initialising Challenge");
+        //There is no game music, so the menu music is faded out
+        Multimedia.stopBackgroundMusic();
         game.start();
+        timerBar.start();
         scene = gameWindow.getScene();
-        scene.addEventHandler(KeyEvent.KEY_PRESSED, this::keyPressed);
+        setKeyHandler(this::keyPressed);
     }
 
   /**
@@ -523,14 +525,13 @@ public class ChallengeScene extends BaseScene {
         extracted3();
       }
       else if (keyCode == ENTER || keyCode == X) {
-       var played =  game.blockClicked(getBoard().getBlock(trackerXCoordinate,trackerYCoordinate));
-       if(played) {
-         resetTimerBar();
-       }
+       game.blockClicked(getBoard().getBlock(trackerXCoordinate,trackerYCoordinate));
       } else if (keyCode == E) {
         game.rotateCurrentPiece();
       } else if(keyCode == SPACE) {
         game.swapCurrentPiece();
+      } else if (keyCode == F3) {
+        hud.toggle(scene);
       } else if (keyCode == K) {
         if(!(game instanceof MultiplayerGame)) {
           game.useSkip();
@@ -545,12 +546,12 @@ public class ChallengeScene extends BaseScene {
    */
   private void extracted3() {
     if (keyBoardInitialized) {
-      if ((trackerXCoordinate + 1 >= 0) && (trackerXCoordinate < 5)) {
+      if (trackerXCoordinate + 1 < board.getCols()) {
         trackerXCoordinate++;
         board.highlightBlock(getBoard().getBlock(trackerXCoordinate, trackerYCoordinate));
-      } else {
-        inalizeKeyboard();
       }//Board X position ++;
+    } else {
+      inalizeKeyboard();
     }
   }
 
@@ -560,7 +561,7 @@ public class ChallengeScene extends BaseScene {
    */
   private void extracted2() {
     if (keyBoardInitialized) {
-      if (((trackerYCoordinate + 1) >= 0) && ((trackerYCoordinate + 1) < 5)) {
+      if (trackerYCoordinate + 1 < board.getRows()) {
         trackerYCoordinate++;
         board.highlightBlock(getBoard().getBlock(trackerXCoordinate, trackerYCoordinate));
       }
@@ -575,7 +576,7 @@ public class ChallengeScene extends BaseScene {
    */
   private void extracted1() {
     if (keyBoardInitialized) {
-      if ((trackerXCoordinate - 1 >= 0) && (trackerXCoordinate < 5)) {
+      if (trackerXCoordinate - 1 >= 0) {
         trackerXCoordinate--;
         board.highlightBlock(getBoard().getBlock(trackerXCoordinate, trackerYCoordinate));
       }
@@ -590,7 +591,7 @@ public class ChallengeScene extends BaseScene {
    */
   private void extracted() {
     if (keyBoardInitialized) {
-      if ((trackerYCoordinate - 1 >= 0) && (trackerYCoordinate - 1 < 5)) {
+      if (trackerYCoordinate - 1 >= 0) {
         trackerYCoordinate--;
         board.highlightBlock(getBoard().getBlock(trackerXCoordinate, trackerYCoordinate));
       } else {
@@ -610,12 +611,21 @@ public class ChallengeScene extends BaseScene {
     logger.info("Key pressed: " + keyEvent.getCode());
         logger.info("Escape key pressed");
         game.shutDown();
-        timeline.stop();
+        timerBar.stop();
+        finishHud();
         logger.info("Stopping animation TimeLine");
         gameWindow.startMenu();
   }
 
 
+  /**
+   * Stops the performance HUD at the end of the session and writes what it recorded
+   */
+  protected void finishHud() {
+    hud.stop();
+    hud.dump();
+  }
+
   /**
    * Internalises the keyboard tracker with 0,0 coordinates
    */
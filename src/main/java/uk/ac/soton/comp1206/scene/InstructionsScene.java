@@ -18,7 +18,10 @@ import uk.ac.soton.comp1206.game.GamePiece;
 import uk.ac.soton.comp1206.game.Grid;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.ui.ResourceCache;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import static javafx.scene.input.KeyCode.ESCAPE;
@@ -35,6 +38,11 @@ public class InstructionsScene extends BaseScene{
    */
   private static final Logger logger = LogManager.getLogger(InstructionsScene.class);
 
+  /**
+   * The boards showing each piece
+   */
+  private final List<PieceBoard> pieceBoards = new ArrayList<>();
+
   /**
    * Create a new scene, passing in the GameWindow the scene will be displayed in
    *
@@ -44,13 +52,22 @@ public class InstructionsScene extends BaseScene{
     super(gameWindow);
   }
 
+  /**
+   * Play the menu music
+   * @return the track
+   */
+  @Override
+  public String getMusic() {
+    return "menu.mp3";
+  }
+
   /**
    * initialise the method
    */
   @Override
   public void initialise() {
     scene = gameWindow.getScene();
-    scene.addEventHandler(KeyEvent.KEY_PRESSED, this::keyPressed);
+    setKeyHandler(this::keyPressed);
   }
 
   /**
@@ -68,9 +85,7 @@ public class InstructionsScene extends BaseScene{
     pane.getStyleClass().add("instructions-background");
 
     root.getChildren().add(pane);
-    Image instructionsImage = new Image(
-            getClass().getResource("/images/Instructions.png").toExternalForm()
-    );
+    Image instructionsImage = ResourceCache.getImage("/images/Instructions.png");
     ImageView imageView = new ImageView();
     imageView.setImage(instructionsImage);
     imageView.setFitWidth(500);
@@ -95,6 +110,7 @@ public class InstructionsScene extends BaseScene{
       for (int j = 0; j < 5; j++) {
         PieceBoard pieceBoard = new PieceBoard(3, 3, 70, 70,false);
         gridPane.add(pieceBoard, i, j);
+        pieceBoards.add(pieceBoard);
         pieceBoard.pieceToDisplay(GamePiece.createPiece(numToplay));
         numToplay++;
       }
@@ -104,6 +120,17 @@ public class InstructionsScene extends BaseScene{
 
   }
 
+  /**
+   * Draw the piece boards again at the scale the window has settled at
+   * @param scalar the new scale
+   */
+  @Override
+  protected void scaleChanged(double scalar) {
+    for (var pieceBoard : pieceBoards) {
+      pieceBoard.setPixelScale(scalar);
+    }
+  }
+
   /**
    * handles the key pressed
    * @param keyEvent the keyEvent that has occurred.
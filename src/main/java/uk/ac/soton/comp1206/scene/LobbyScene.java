@@ -16,7 +16,8 @@ import javafx.scene.text.TextFlow;
 import javafx.util.Callback;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import uk.ac.soton.comp1206.event.CommunicationsListener;
+import uk.ac.soton.comp1206.event.MessageListener;
+import uk.ac.soton.comp1206.network.Message;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
 import javafx.collections.FXCollections;
@@ -92,13 +93,22 @@ public class LobbyScene extends BaseScene {
     listView.setItems(channelList);
   }
 
+  /**
+   * Play the menu music
+   * @return the track
+   */
+  @Override
+  public String getMusic() {
+    return "menu.mp3";
+  }
+
   /**
    * initialises the scene
    */
   @Override
   public void initialise() {
     scene = gameWindow.getScene();
-    scene.addEventHandler(KeyEvent.KEY_PRESSED, this::keyPressed);
+    setKeyHandler(this::keyPressed);
   }
 
   /**
@@ -127,7 +137,7 @@ public class LobbyScene extends BaseScene {
     };
     timer  = new Timer();
     timer.scheduleAtFixedRate(timerTask,0,2000);
-    gameWindow.getCommunicator().addListener(listener());
+    gameWindow.getCommunicator().addMessageListener(listener());
 
   }
 
@@ -163,10 +173,10 @@ public class LobbyScene extends BaseScene {
   }
 
   /**
-   * Returns a CommunicationsListener object that processes a message.
-   * @return the CommunicationsListener object
+   * Returns a MessageListener object that processes a message.
+   * @return the MessageListener object
    */
-  private CommunicationsListener listener() {
+  private MessageListener listener() {
     return s -> getMessage(s);
   }
 
@@ -174,7 +184,7 @@ public class LobbyScene extends BaseScene {
    * waits for the application thread to be free to execute the processMessage on it
    * @param s the message to process
    */
-  private void getMessage(String s) {
+  private void getMessage(Message s) {
     Platform.runLater(new Runnable() {
       @Override
       public void run() {
@@ -188,60 +198,39 @@ public class LobbyScene extends BaseScene {
    * @param message the message to process
    */
 
-  private void processMessage(String message) {
-    var splitMessage  = message.split(" ");
-
+  private void processMessage(Message message) {
     logger.info("Message received from the server {}", message);
 
-    switch (splitMessage[0]) {
-      case "CHANNELS" -> {
-        logger.info("Channel List Received");
-        if(splitMessage.length == 1) {
-          logger.info("There are no games Currently active");
-          return;
-        }
-        var differentChannels = splitMessage[1].split("\n");
-        for (int i = 0; i < differentChannels.length ; i++) {
-          if(doesNotExist(differentChannels[i])) {
-            channelList.add(differentChannels[i]);
-          }
-        }
-        ArrayList<String> ch = new ArrayList<>(channelList);
-        ArrayList<String> differentChannelsList = new ArrayList<>(Arrays.asList(differentChannels));
-
-        for (int i = ch.size() - 1; i >= 0; i--) {
-          if (differentChannelsList.contains(ch.get(i))) {
-            ch.remove(i);
-          }
-        }
-        channelList.removeAll(ch);
-        updateUIWithChannels();
-      }
-      case "JOIN" -> {
-        logger.info("Joining Game");
-        /// Join The game
-        joinGame();
-      }
-      case "ERROR" -> {
-        //Error occurred while joining the game.
-        logger.debug("Error Occurred {}", message);
-      }
-      case "NICK" -> {
-        logger.info("The name has been successfully changed {}", message);
+    if (message instanceof Message.Channels channels) {
+      logger.info("Channel List Received");
+      if(channels.names().isEmpty()) {
+        logger.info("There are no games Currently active");
+        return;
       }
-
-      case "MSG" -> {
-        Text text = new Text(message.substring(4) + "\n");
-        textRecieved.getChildren().add(text);
-      } case "START" -> {
-        logger.info("The game is starting");
-        startMultiPlayerGame();
-
-      } case "USERS" -> {
-        var currentUserList  = splitMessage[1].split("\n");
-        userList.addAll(Arrays.asList(currentUserList));
+      for (var channel : channels.names()) {
+        if(doesNotExist(channel)) {
+          channelList.add(channel);
+        }
       }
-
+      channelList.retainAll(channels.names());
+      updateUIWithChannels();
+    } else if (message instanceof Message.Join) {
+      logger.info("Joining Game");
+      /// Join The game
+      joinGame();
+    } else if (message instanceof Message.ServerError error) {
+      //Error occurred while joining the game.
+      logger.debug("Error Occurred {}", error.reason());
+    } else if (message instanceof Message.Nick nick) {
+      logger.info("The name has been successfully changed {}", nick.name());
+    } else if (message instanceof Message.Chat chat) {
+      Text text = new Text(chat.sender() + ":" + chat.text() + "\n");
+      textRecieved.getChildren().add(text);
+    } else if (message instanceof Message.Start) {
+      logger.info("The game is starting");
+      startMultiPlayerGame();
+    } else if (message instanceof Message.Users users) {
+      userList.addAll(users.names());
     }
 
   }
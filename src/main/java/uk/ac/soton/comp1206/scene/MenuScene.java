@@ -18,6 +18,7 @@ import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.Media.Multimedia;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.ui.ResourceCache;
 
 import java.util.Objects;
 
@@ -33,6 +34,16 @@ public class MenuScene extends BaseScene {
      */
     private static final Logger logger = LogManager.getLogger(MenuScene.class);
 
+    /**
+     * The logo, animated while the menu is shown
+     */
+    private ImageView logo;
+
+    /**
+     * The animation moving the logo, or null when the menu is hidden
+     */
+    private Timeline logoAnimation;
+
     /**
      * Create a new menu scene
      * @param gameWindow the Game Window this will be displayed in
@@ -60,7 +71,7 @@ public class MenuScene extends BaseScene {
         var mainPane = new BorderPane();
         menuPane.getChildren().add(mainPane);
 
-        Image TetresECS = new Image(getClass().getResource("/images/TetrECS.png").toExternalForm());
+        Image TetresECS = ResourceCache.getImage("/images/TetrECS.png");
         ImageView imageView = new ImageView();
         imageView.setImage(TetresECS);
         imageView.setFitWidth(500);
@@ -72,6 +83,8 @@ public class MenuScene extends BaseScene {
 
         var singlePlayerButton = new Button("Single player");
         singlePlayerButton.getStyleClass().add("title");
+        var endurance = new Button("Endurance");
+        endurance.getStyleClass().add("title");
         var multiPlayer = new Button("Multi Player");
         multiPlayer.getStyleClass().add("title");
         var howToPlay = new Button("How to Play");
@@ -81,16 +94,17 @@ public class MenuScene extends BaseScene {
 
         VBox buttonsVBox = new VBox();
         buttonsVBox.getChildren().addAll(
-                singlePlayerButton,multiPlayer,howToPlay,exitButton
+                singlePlayerButton,endurance,multiPlayer,howToPlay,exitButton
         );
         buttonsVBox.setAlignment(Pos.BOTTOM_CENTER);
 
         mainPane.setBottom(buttonsVBox);
-        animateLogo(imageView);
+        logo = imageView;
         if(root != null) {logger.debug("root is null");}
 
         //Bind the button action to the startGame method in the menu
         singlePlayerButton.setOnAction(this::startGame);
+        endurance.setOnAction(this::startEndurance);
 
         //Bind the button to go to instructions
         howToPlay.setOnAction(this::openInstructions);
@@ -106,16 +120,37 @@ public class MenuScene extends BaseScene {
     }
 
 
+    /**
+     * Play the menu music
+     * @return the track
+     */
+    @Override
+    public String getMusic() {
+        return "menu.mp3";
+    }
+
     /**
      * Initialise the menu
      */
     @Override
     public void initialise() {
         scene = gameWindow.getScene();
-        scene.addEventHandler(KeyEvent.KEY_PRESSED, this::keyPressed);
+        setKeyHandler(this::keyPressed);
+        logoAnimation = animateLogo(logo);
 
     }
 
+    /**
+     * Stop animating the logo while the menu is hidden, as the menu is kept for reuse
+     */
+    @Override
+    public void hide() {
+        if(logoAnimation != null) {
+            logoAnimation.stop();
+            logoAnimation = null;
+        }
+    }
+
     /**
      * This classes the game when escape key is pressed
      * @param keyEvent the keyEvent that occurred
@@ -146,8 +181,9 @@ public class MenuScene extends BaseScene {
     /**
      * animates the secretes logo
      * @param imageView the imageView to animate
+     * @return the timeline moving the logo, which runs until stopped
      */
-    public static void animateLogo(ImageView imageView) {
+    public static Timeline animateLogo(ImageView imageView) {
         FadeTransition fade = new FadeTransition();
         fade.setNode(imageView);
         fade.setDuration(Duration.millis(4000));
@@ -166,6 +202,7 @@ public class MenuScene extends BaseScene {
         timeline.setCycleCount(Timeline.INDEFINITE);
         timeline.setAutoReverse(true);
         timeline.play();
+        return timeline;
     }
     /**
      * Handle when the Start Game button is pressed
@@ -175,6 +212,14 @@ public class MenuScene extends BaseScene {
         gameWindow.startChallenge();
     }
 
+    /**
+     * Handle when the Endurance button is pressed
+     * @param event event
+     */
+    private void startEndurance(ActionEvent event) {
+        gameWindow.startEndurance();
+    }
+
     /**
      * Handel the open instructions button
      * @param event event
@@ -137,25 +137,6 @@ public class MultiplayerScene extends ChallengeScene {
 
   }
 
-  /**
-   * sends the server the necessary information about after the block has been played
-   * @param isPlaced if the block is played
-   */
-  public void blockPlayedTimerUpdated(Boolean isPlaced) {
-      super.blockPlayedTimerUpdated(isPlaced);
-      sendUpdatedScores();
-      gameWindow.getCommunicator().send(game.boardValues());
-      gameWindow.getCommunicator().send("LIVES " + Game.getLives());
-  }
-
-  /**
-   * sends the server the updated score
-   */
-  private void sendUpdatedScores() {
-    logger.info("Sending Score");
-    gameWindow.getCommunicator().send("SCORE " + Game.getScore());
-  }
-
   /**
    *timer used to  requests leaderInformation
    */
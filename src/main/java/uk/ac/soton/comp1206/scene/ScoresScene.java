@@ -24,11 +24,13 @@ import javafx.util.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.component.ScoresList;
-import uk.ac.soton.comp1206.event.CommunicationsListener;
+import uk.ac.soton.comp1206.event.MessageListener;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.game.MultiplayerGame;
+import uk.ac.soton.comp1206.network.Message;
 import uk.ac.soton.comp1206.ui.GamePane;
 import uk.ac.soton.comp1206.ui.GameWindow;
+import uk.ac.soton.comp1206.ui.ResourceCache;
 
 import java.util.Random;
 
@@ -174,7 +176,7 @@ public class ScoresScene extends BaseScene {
     mainPane = new BorderPane();
     scoresScene.getChildren().add(mainPane);
 
-    Image TetresECS = new Image(getClass().getResource("/images/TetrECS.png").toExternalForm());
+    Image TetresECS = ResourceCache.getImage("/images/TetrECS.png");
     ImageView imageView = new ImageView();
     imageView.setImage(TetresECS);
     imageView.setFitWidth(500);
@@ -196,11 +198,11 @@ public class ScoresScene extends BaseScene {
     scoresList.setVisible(false);
 
     if(!(game instanceof MultiplayerGame)) {
-      if (Game.getScore() > lowestScore() && Game.getScore() < highestScore()) {
+      if (game.getScore() > lowestScore() && game.getScore() < highestScore()) {
 //        if (!(game instanceof MultiplayerGame)) {
           updateScorlist();
 //        }
-      } else if (Game.getScore() > highestScore()) {
+      } else if (game.getScore() > highestScore()) {
 //        if (!(game instanceof MultiplayerGame)) {
           updateBoth();
 //        }
@@ -247,7 +249,7 @@ public class ScoresScene extends BaseScene {
 
       submitButton.setOnAction((e) -> {
         String name = userName.getText();
-        Pair<String,Integer> stringIntegerPair  = new Pair<>(name, Game.getScore());
+        Pair<String,Integer> stringIntegerPair  = new Pair<>(name, game.getScore());
         scores.add(stringIntegerPair);
         scoresList.arrangeTheList();
         scoresList.writeScores(scoresList);
@@ -287,7 +289,7 @@ public class ScoresScene extends BaseScene {
 
       submitButton.setOnAction((e) -> {
         String name = userName.getText();
-        Pair<String,Integer> stringIntegerPair  = new Pair<>(name, Game.getScore());
+        Pair<String,Integer> stringIntegerPair  = new Pair<>(name, game.getScore());
         scores.add(stringIntegerPair);
         scoresList.arrangeTheList();
         scoresList.writeScores(scoresList);
@@ -331,7 +333,7 @@ public class ScoresScene extends BaseScene {
       remoteScoreList.setMaxHeight(400);
       remoteScoreList.getStyleClass().add("list-cell");
       loadOnlineScores();
-      gameWindow.getCommunicator().addListener(getCommunicationsListener());
+      gameWindow.getCommunicator().addMessageListener(getMessageListener());
       System.out.println(remoteScoreList.toString());
       remoteScoreList.setCellFactory(ScoresScene::call);
 
@@ -348,27 +350,26 @@ public class ScoresScene extends BaseScene {
   }
 
   /**
-   * Returns the CommunicationsListener
-   * @return CommunicationsListener
+   * Returns the MessageListener
+   * @return MessageListener
    */
-  private  CommunicationsListener getCommunicationsListener() {
-    return ScoresScene::receiveCommunication;
+  private MessageListener getMessageListener() {
+    return ScoresScene::receiveMessage;
   }
 
   /**
    * waits for the java application thread to free up to call processMessage
    * @param message message received from the server
    */
-  private static void receiveCommunication(String message) {
+  private static void receiveMessage(Message message) {
     Platform.runLater(new Runnable() {
       @Override
       public void run() {
-        var messageRecieved  =message.split(" ");
-        if(messageRecieved[0].equals("HISCORES")){
-          processMessage(message);
-        } else if (messageRecieved[0].equals("NEWSCORE")) {
-          logger.info("You High Score of {} has been sent to the server", Game.getScore());
-          logger.info("Info Returned from the Server {}", message);
+        if(message instanceof Message.HiScores hiScores){
+          processMessage(hiScores);
+        } else if (message instanceof Message.Other other && other.command().equals("NEWSCORE")) {
+          logger.info("Your High Score has been sent to the server");
+          logger.info("Info Returned from the Server {}", other.body());
         }
         displayRemoteList();
       }
@@ -383,16 +384,13 @@ public class ScoresScene extends BaseScene {
   }
 
   /**
-   * Process the message received from the server
-   * @param message message received from the server
+   * Process the high scores received from the server
+   * @param hiScores high scores received from the server
    */
-  private static void processMessage(String message) {
-      var messageWithOutHighScore = message.split(" ");
-      var split  = messageWithOutHighScore[1].split("\n");
-    for (int i = 0; i < split.length ; i++) {
-      var array = split[i].split(":");
+  private static void processMessage(Message.HiScores hiScores) {
+    for (var entry : hiScores.entries()) {
       remoteScores.add(
-              new Pair<>(array[0], Integer.parseInt(array[1]))
+              new Pair<>(entry.name(), entry.score())
       );
     }
   }
@@ -401,7 +399,7 @@ public class ScoresScene extends BaseScene {
    * sends highScore to the server
    */
   public void sendHighScore() {
-    gameWindow.getCommunicator().send("HISCORE " + userNameEntered + ":" + Game.getScore());
+    gameWindow.getCommunicator().send("HISCORE " + userNameEntered + ":" + game.getScore());
   }
 
   /**
@@ -430,6 +428,24 @@ public class ScoresScene extends BaseScene {
   }
 
 
+  /**
+   * Play the end of game music
+   * @return the track
+   */
+  @Override
+  public String getMusic() {
+    return "end.wav";
+  }
+
+  /**
+   * Load the menu music, as the menu follows the scores
+   * @return the track
+   */
+  @Override
+  public String getNextMusic() {
+    return "menu.mp3";
+  }
+
   /**
    * Initialises the scene
    */
@@ -0,0 +1,81 @@
+package uk.ac.soton.comp1206.solver;
+
+/**
+ * A Hint is the best place to play a piece, according to a SolverTable
+ */
+public class Hint {
+
+    /**
+     * The rotation to play the piece in, from 0 to 3
+     */
+    private final int rotation;
+
+    /**
+     * The column of the centre of the piece
+     */
+    private final int x;
+
+    /**
+     * The row of the centre of the piece
+     */
+    private final int y;
+
+    /**
+     * The value of the board after playing the piece there
+     */
+    private final double value;
+
+    /**
+     * Create a hint
+     * @param rotation the rotation to play the piece in
+     * @param x column of the centre of the piece
+     * @param y row of the centre of the piece
+     * @param value value of the board after playing
+     */
+    Hint(int rotation, int x, int y, double value) {
+        this.rotation = rotation;
+        this.x = x;
+        this.y = y;
+        this.value = value;
+    }
+
+    /**
+     * Get the rotation to play the piece in
+     * @return rotation, from 0 to 3, the same as {@link uk.ac.soton.comp1206.game.GamePiece#getRotation()}
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Get the column of the centre of the piece
+     * @return column
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Get the row of the centre of the piece
+     * @return row
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Get the value of the board after playing the piece here
+     * @return value, from 0 to 1
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Return the string representation of this hint
+     * @return the rotation, position and value
+     */
+    public String toString() {
+        return "rotation " + rotation + " at " + x + "," + y + " (" + value + ")";
+    }
+}
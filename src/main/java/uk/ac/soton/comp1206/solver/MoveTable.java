@@ -0,0 +1,137 @@
+package uk.ac.soton.comp1206.solver;
+
+import uk.ac.soton.comp1206.game.GamePiece;
+
+import java.util.Arrays;
+
+/**
+ * Every distinct way each piece can be placed on an empty board, as occupancy bitmasks with bit (y * cols + x) set for
+ * each block the piece covers. Rotations which cover the same blocks at the same place are only listed once.
+ */
+final class MoveTable {
+
+    /**
+     * The number of columns of the board
+     */
+    final int cols;
+
+    /**
+     * The number of rows of the board
+     */
+    final int rows;
+
+    /**
+     * The blocks covered by each placement, indexed by [piece number][placement]
+     */
+    final int[][] masks;
+
+    /**
+     * The rotation and centre of each placement, packed as rotation &lt;&lt; 16 | y &lt;&lt; 8 | x, indexed like the masks
+     */
+    final int[][] anchors;
+
+    /**
+     * The blocks of each row
+     */
+    private final int[] rowMasks;
+
+    /**
+     * The blocks of each column
+     */
+    private final int[] colMasks;
+
+    /**
+     * Work out the placements for a board
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    MoveTable(int cols, int rows) {
+        if(cols * rows > 28) {
+            throw new IllegalArgumentException("Board too big to solve: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+
+        rowMasks = new int[rows];
+        colMasks = new int[cols];
+        for(int y = 0; y < rows; y++) {
+            for(int x = 0; x < cols; x++) {
+                rowMasks[y] |= 1 << (y * cols + x);
+                colMasks[x] |= 1 << (y * cols + x);
+            }
+        }
+
+        masks = new int[GamePiece.PIECES][];
+        anchors = new int[GamePiece.PIECES][];
+        var pieceMasks = new int[GamePiece.ROTATIONS * cols * rows];
+        var pieceAnchors = new int[pieceMasks.length];
+        for(int piece = 0; piece < GamePiece.PIECES; piece++) {
+            int count = 0;
+            for(int rotation = 0; rotation < GamePiece.ROTATIONS; rotation++) {
+                var gamePiece = GamePiece.createPiece(piece, rotation);
+                for(int y = 0; y < rows; y++) {
+                    for(int x = 0; x < cols; x++) {
+                        int mask = place(gamePiece, x, y);
+                        if(mask == 0 || contains(pieceMasks, count, mask)) continue;
+                        pieceMasks[count] = mask;
+                        pieceAnchors[count] = rotation << 16 | y << 8 | x;
+                        count++;
+                    }
+                }
+            }
+            masks[piece] = Arrays.copyOf(pieceMasks, count);
+            anchors[piece] = Arrays.copyOf(pieceAnchors, count);
+        }
+    }
+
+    /**
+     * Get the blocks a piece covers with its centre at x,y
+     * @param piece the piece
+     * @param x column
+     * @param y row
+     * @return the blocks, or 0 if part of the piece would be off the board
+     */
+    int place(GamePiece piece, int x, int y) {
+        int mask = 0;
+        int blocks = piece.getMask();
+        while(blocks != 0) {
+            int block = Integer.numberOfTrailingZeros(blocks);
+            blocks &= blocks - 1;
+            int blockX = x - 1 + block % 3;
+            int blockY = y - 1 + block / 3;
+            if(blockX < 0 || blockY < 0 || blockX >= cols || blockY >= rows) return 0;
+            mask |= 1 << (blockY * cols + blockX);
+        }
+        return mask;
+    }
+
+    /**
+     * Check if a mask is already in the first entries of an array
+     * @param masks the array
+     * @param count the number of entries to look at
+     * @param mask the mask to look for
+     * @return true if found
+     */
+    private static boolean contains(int[] masks, int count, int mask) {
+        for(int i = 0; i < count; i++) {
+            if(masks[i] == mask) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Empty every full row and column, the same as the game does after a piece is played
+     * @param occupancy the blocks filled
+     * @return the blocks left filled
+     */
+    int clear(int occupancy) {
+        int cleared = 0;
+        for(int mask : rowMasks) {
+            if((occupancy & mask) == mask) cleared |= mask;
+        }
+        for(int mask : colMasks) {
+            if((occupancy & mask) == mask) cleared |= mask;
+        }
+        return occupancy & ~cleared;
+    }
+}
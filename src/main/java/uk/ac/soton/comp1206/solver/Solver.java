@@ -0,0 +1,192 @@
+package uk.ac.soton.comp1206.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.game.GamePiece;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The Solver works out, for every occupancy of a small board, how likely the player is to survive the next pieces.
+ *
+ * The value of a board after a horizon of h pieces is the chance, playing perfectly, of being able to place every one of
+ * the next h random pieces. Each of the 15 pieces is equally likely and the player may use any rotation and position.
+ * Each step takes the values for h - 1 pieces, and for every board and piece finds the placement, after clearing full
+ * lines, with the best value. The step is split across cores with fork/join.
+ *
+ * Boards with a full line never last past the end of a move, so they are given the value 0 and skipped. Every other
+ * board can be reached, since the Dot piece can fill any single block, so every other board is solved.
+ *
+ * Run from the command line to write a table for {@link SolverTable} to load:
+ * Solver output [horizon] [cols rows]
+ */
+public class Solver {
+
+    /**
+     * used to log progress on terminal
+     */
+    private static final Logger logger = LogManager.getLogger(Solver.class);
+
+    /**
+     * The horizon used when none is given
+     */
+    public static final int DEFAULT_HORIZON = 8;
+
+    /**
+     * The number of boards below which a step is not split any further
+     */
+    private static final int THRESHOLD = 1 << 14;
+
+    /**
+     * The placements of every piece
+     */
+    private final MoveTable moves;
+
+    /**
+     * The number of possible boards
+     */
+    private final int states;
+
+    /**
+     * Create a solver for a board
+     * @param cols number of columns
+     * @param rows number of rows
+     */
+    public Solver(int cols, int rows) {
+        this.moves = new MoveTable(cols, rows);
+        this.states = 1 << (cols * rows);
+    }
+
+    /**
+     * Work out the value of every board
+     * @param horizon the number of pieces to look ahead
+     * @return the values, indexed by occupancy with bit (y * cols + x) set for each filled block
+     */
+    public float[] solve(int horizon) {
+        var previous = new float[states];
+        var next = new float[states];
+        Arrays.fill(previous, 1f);
+        var pool = ForkJoinPool.commonPool();
+        for(int step = 1; step <= horizon; step++) {
+            long start = System.nanoTime();
+            pool.invoke(new Step(previous, next, 0, states));
+            var swap = previous;
+            previous = next;
+            next = swap;
+            logger.info("Solved {} of {} pieces ahead in {}ms, empty board {}", step, horizon,
+                    (System.nanoTime() - start) / 1_000_000, previous[0]);
+        }
+        return previous;
+    }
+
+    /**
+     * Work out the value of a board from the values one piece less ahead
+     * @param occupancy the board
+     * @param previous the values one piece less ahead
+     * @return the value
+     */
+    private float value(int occupancy, float[] previous) {
+        if(moves.clear(occupancy) != occupancy) {
+            //Not a board left at the end of a move
+            return 0f;
+        }
+        float total = 0;
+        for(int piece = 0; piece < GamePiece.PIECES; piece++) {
+            float best = 0;
+            for(int mask : moves.masks[piece]) {
+                if((occupancy & mask) != 0) continue;
+                float value = previous[moves.clear(occupancy | mask)];
+                if(value > best) {
+                    best = value;
+                    if(best >= 1f) break;
+                }
+            }
+            total += best;
+        }
+        return total / GamePiece.PIECES;
+    }
+
+    /**
+     * One step of the solver over a range of boards, split in half until small enough
+     */
+    private class Step extends RecursiveAction {
+
+        /**
+         * The values one piece less ahead
+         */
+        private final float[] previous;
+
+        /**
+         * Where to put the new values
+         */
+        private final float[] next;
+
+        /**
+         * The first board of the range
+         */
+        private final int from;
+
+        /**
+         * One past the last board of the range
+         */
+        private final int to;
+
+        /**
+         * Create a step over a range of boards
+         * @param previous the values one piece less ahead
+         * @param next where to put the new values
+         * @param from the first board
+         * @param to one past the last board
+         */
+        Step(float[] previous, float[] next, int from, int to) {
+            this.previous = previous;
+            this.next = next;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Work out the values of the range, or split it in two
+         */
+        @Override
+        protected void compute() {
+            if(to - from <= THRESHOLD) {
+                for(int occupancy = from; occupancy < to; occupancy++) {
+                    next[occupancy] = value(occupancy, previous);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Step(previous, next, from, middle), new Step(previous, next, middle, to));
+        }
+    }
+
+    /**
+     * Solve a board and write the table
+     * @param args the output file, then optionally the horizon, then optionally the columns and rows
+     */
+    public static void main(String[] args) {
+        if(args.length != 1 && args.length != 2 && args.length != 4) {
+            System.err.println("Usage: Solver output [horizon] [cols rows]");
+            System.exit(2);
+        }
+        var output = Path.of(args[0]);
+        int horizon = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HORIZON;
+        int cols = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int rows = args.length > 2 ? Integer.parseInt(args[3]) : 5;
+
+        logger.info("Solving a {}x{} board {} pieces ahead", cols, rows, horizon);
+        var values = new Solver(cols, rows).solve(horizon);
+        try {
+            SolverTable.write(output, cols, rows, horizon, values);
+            logger.info("Written {}", output);
+        } catch (IOException e) {
+            logger.error("Could not write {}: {}", output, e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package uk.ac.soton.comp1206.solver;
+
+import uk.ac.soton.comp1206.game.GamePiece;
+import uk.ac.soton.comp1206.game.Grid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A SolverTable holds the value the Solver worked out for every board, memory mapped from the file so loading it is
+ * instant and takes no heap. Looking up a board, or the best place to play a piece, needs no search.
+ *
+ * The file is a header of the magic bytes "TSOL" and four little endian ints: version, columns, rows and horizon. Then
+ * comes one little endian unsigned 16 bit value per board, indexed by occupancy, where 65535 is certain survival.
+ */
+public class SolverTable {
+
+    /**
+     * The bytes every table starts with
+     */
+    private static final byte[] MAGIC = {'T', 'S', 'O', 'L'};
+
+    /**
+     * The version of the format written
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The size of the header in bytes
+     */
+    private static final int HEADER = MAGIC.length + 4 * 4;
+
+    /**
+     * The stored value which means certain survival
+     */
+    private static final int ONE = 0xFFFF;
+
+    /**
+     * The mapped file
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * The placements of every piece
+     */
+    private final MoveTable moves;
+
+    /**
+     * The number of pieces ahead the values are for
+     */
+    private final int horizon;
+
+    /**
+     * Create a table over a mapped file whose header has been checked
+     * @param buffer the mapped file
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param horizon the number of pieces ahead
+     */
+    private SolverTable(MappedByteBuffer buffer, int cols, int rows, int horizon) {
+        this.buffer = buffer;
+        this.moves = new MoveTable(cols, rows);
+        this.horizon = horizon;
+    }
+
+    /**
+     * Write a table
+     * @param path the file to write
+     * @param cols number of columns
+     * @param rows number of rows
+     * @param horizon the number of pieces ahead
+     * @param values the value of every board, from 0 to 1
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, int cols, int rows, int horizon, float[] values) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).putInt(VERSION).putInt(cols).putInt(rows).putInt(horizon).flip();
+            while(header.hasRemaining()) channel.write(header);
+
+            var chunk = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for(float value : values) {
+                if(!chunk.hasRemaining()) {
+                    chunk.flip();
+                    while(chunk.hasRemaining()) channel.write(chunk);
+                    chunk.clear();
+                }
+                chunk.putChar((char) Math.round(Math.min(1f, Math.max(0f, value)) * ONE));
+            }
+            chunk.flip();
+            while(chunk.hasRemaining()) channel.write(chunk);
+        }
+    }
+
+    /**
+     * Map a table written by {@link #write(Path, int, int, int, float[])}
+     * @param path the file
+     * @return the table
+     * @throws IOException if the file cannot be read or is not a table
+     */
+    public static SolverTable load(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() < HEADER) {
+                throw new IOException("Not a solver table");
+            }
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            for(byte b : MAGIC) {
+                if(buffer.get() != b) throw new IOException("Not a solver table");
+            }
+            int version = buffer.getInt();
+            if(version != VERSION) {
+                throw new IOException("Unsupported solver table version " + version);
+            }
+            int cols = buffer.getInt();
+            int rows = buffer.getInt();
+            int horizon = buffer.getInt();
+            long cells = (long) cols * rows;
+            if(cols <= 0 || rows <= 0 || cells > 28
+                    || channel.size() != HEADER + 2L * (1L << cells)) {
+                throw new IOException("Solver table has the wrong size");
+            }
+            return new SolverTable(buffer, cols, rows, horizon);
+        }
+    }
+
+    /**
+     * Get the occupancy of a grid, with bit (y * cols + x) set for each filled block
+     * @param grid the grid, the same size as the table
+     * @return the occupancy
+     */
+    public int occupancy(Grid grid) {
+        if(grid.getCols() != moves.cols || grid.getRows() != moves.rows) {
+            throw new IllegalArgumentException("Table is for a " + moves.cols + "x" + moves.rows + " board");
+        }
+        int occupancy = 0;
+        for(int y = 0; y < moves.rows; y++) {
+            for(int x = 0; x < moves.cols; x++) {
+                if(grid.isOccupied(x, y)) occupancy |= 1 << (y * moves.cols + x);
+            }
+        }
+        return occupancy;
+    }
+
+    /**
+     * Get the value of a board
+     * @param occupancy the board, with bit (y * cols + x) set for each filled block
+     * @return the chance of surviving the next pieces, from 0 to 1
+     */
+    public double value(int occupancy) {
+        return (double) buffer.getChar(HEADER + 2 * occupancy) / ONE;
+    }
+
+    /**
+     * Get the value of a grid
+     * @param grid the grid
+     * @return the chance of surviving the next pieces, from 0 to 1
+     */
+    public double value(Grid grid) {
+        return value(occupancy(grid));
+    }
+
+    /**
+     * Find the best place to play a piece, the one leaving the board with the highest value after clearing lines
+     * @param occupancy the board, with bit (y * cols + x) set for each filled block
+     * @param piece the piece to play, in any rotation
+     * @return the best placement, or null if the piece cannot be played anywhere
+     */
+    public Hint hint(int occupancy, GamePiece piece) {
+        var masks = moves.masks[piece.getPiece()];
+        int best = -1;
+        int bestValue = -1;
+        for(int i = 0; i < masks.length; i++) {
+            if((occupancy & masks[i]) != 0) continue;
+            int value = buffer.getChar(HEADER + 2 * moves.clear(occupancy | masks[i]));
+            if(value > bestValue) {
+                best = i;
+                bestValue = value;
+            }
+        }
+        if(best < 0) return null;
+        int anchor = moves.anchors[piece.getPiece()][best];
+        return new Hint(anchor >>> 16, anchor & 0xFF, (anchor >>> 8) & 0xFF, (double) bestValue / ONE);
+    }
+
+    /**
+     * Find the best place to play a piece on a grid
+     * @param grid the grid
+     * @param piece the piece to play, in any rotation
+     * @return the best placement, or null if the piece cannot be played anywhere
+     */
+    public Hint hint(Grid grid, GamePiece piece) {
+        return hint(occupancy(grid), piece);
+    }
+
+    /**
+     * Get the value of the board left by playing a piece at a position, for grading a move against the best one
+     * @param occupancy the board before the move
+     * @param piece the piece played, in the rotation it was played
+     * @param x column of the centre of the piece
+     * @param y row of the centre of the piece
+     * @return the value after the move, or -1 if the piece cannot be played there
+     */
+    public double valueAfter(int occupancy, GamePiece piece, int x, int y) {
+        int mask = moves.place(piece, x, y);
+        if(mask == 0 || (occupancy & mask) != 0) return -1;
+        return value(moves.clear(occupancy | mask));
+    }
+
+    /**
+     * Get the number of columns of the board
+     * @return number of columns
+     */
+    public int getCols() {
+        return moves.cols;
+    }
+
+    /**
+     * Get the number of rows of the board
+     * @return number of rows
+     */
+    public int getRows() {
+        return moves.rows;
+    }
+
+    /**
+     * Get the number of pieces ahead the values are for
+     * @return horizon
+     */
+    public int getHorizon() {
+        return horizon;
+    }
+}
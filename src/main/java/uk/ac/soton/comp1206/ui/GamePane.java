@@ -1,11 +1,15 @@
 package uk.ac.soton.comp1206.ui;
 
+import javafx.animation.PauseTransition;
 import javafx.geometry.Pos;
 import javafx.scene.layout.*;
 import javafx.scene.transform.Scale;
 import javafx.scene.transform.Translate;
+import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.component.BlockSprites;
+import uk.ac.soton.comp1206.event.ScaleChangedListener;
 
 /**
  * The Game Pane is a special pane which will scale anything inside it to the screen and maintain the aspect ratio.
@@ -17,17 +21,61 @@ import org.apache.logging.log4j.Logger;
  * It uses the width and height given which should match the main window size. This will be the base drawing resolution,
  * but will be scaled up or down as the window is resized.
  *
+ * The scale and translation are kept and only updated when the size of the pane changes. While the window is being
+ * resized the content is just transformed; once it has stopped changing size for a moment, anything which is drawn at
+ * a particular size is told to draw again at the final scale.
+ *
  * You should not need to modify this class
  */
 public class GamePane extends StackPane {
 
     private static final Logger logger = LogManager.getLogger(GamePane.class);
 
+    /**
+     * How long the size must stay the same before the resize is treated as finished
+     */
+    private static final Duration SETTLE_TIME = Duration.millis(200);
+
     private final int width;
     private final int height;
     private double scalar = 1;
     private final boolean autoScale = true;
 
+    /**
+     * The scale applied to the content
+     */
+    private final Scale scale = new Scale(1, 1, 0, 0);
+
+    /**
+     * The padding applied to the content to keep it centred
+     */
+    private final Translate translate = new Translate();
+
+    /**
+     * The width the transforms were last worked out for
+     */
+    private double laidOutWidth = -1;
+
+    /**
+     * The height the transforms were last worked out for
+     */
+    private double laidOutHeight = -1;
+
+    /**
+     * The scale the size dependent caches were last drawn at, or NaN before the first resize has settled
+     */
+    private double settledScalar = Double.NaN;
+
+    /**
+     * Waits for the size to stop changing
+     */
+    private final PauseTransition settle = new PauseTransition(SETTLE_TIME);
+
+    /**
+     * Listener to call when the scale has settled at a new value
+     */
+    private ScaleChangedListener scaleChangedListener;
+
     /**
      * Create a new scalable GamePane with the given drawing width and height.
      * @param width width
@@ -40,19 +88,57 @@ public class GamePane extends StackPane {
 
         getStyleClass().add("gamepane");
         setAlignment(Pos.TOP_LEFT);
+
+        getTransforms().setAll(translate, scale);
+        settle.setOnFinished((e) -> settled());
     }
 
     /**
-     * Update the scalar being used by this draw pane
+     * Set the listener to call once the scale has settled at a new value after a resize
+     * @param listener the listener, or null for none
+     */
+    public void setOnScaleChanged(ScaleChangedListener listener) {
+        this.scaleChangedListener = listener;
+    }
+
+    /**
+     * Get the scale the content is drawn at
+     * @return the scalar
+     */
+    public double getScalar() {
+        return scalar;
+    }
+
+    /**
+     * Update the scalar being used by this draw pane. Size dependent caches are only drawn again once the size stops
+     * changing.
      * @param scalar scalar
      */
     protected void setScalar(double scalar) {
         this.scalar = scalar;
+        scale.setX(scalar);
+        scale.setY(scalar);
+        settle.playFromStart();
+    }
+
+    /**
+     * Called once the size has stopped changing. When the scale is different from the last time, the block sprites
+     * are rendered again at the new scale and the listener is told.
+     */
+    private void settled() {
+        if(scalar == settledScalar) return;
+        logger.debug("Scale settled at {}", scalar);
+        settledScalar = scalar;
+        BlockSprites.setScale(scalar);
+        if(scaleChangedListener != null) {
+            scaleChangedListener.scaleChanged(scalar);
+        }
     }
 
     /**
      * Use a Graphics Transformation to scale everything inside this pane. Padding is added to the edges to maintain
-     * the correct aspect ratio and keep the display centred.
+     * the correct aspect ratio and keep the display centred. The transformation is only worked out again when the
+     * size of the pane has changed.
      */
     @Override
     public void layoutChildren() {
@@ -62,9 +148,18 @@ public class GamePane extends StackPane {
             return;
         }
 
+        //Get the parent width and height
+        var parentWidth = getWidth();
+        var parentHeight = getHeight();
+        if(parentWidth == laidOutWidth && parentHeight == laidOutHeight) {
+            return;
+        }
+        laidOutWidth = parentWidth;
+        laidOutHeight = parentHeight;
+
         //Work out the scale factor height and width
-        var scaleFactorHeight = getHeight() / height;
-        var scaleFactorWidth = getWidth() / width;
+        var scaleFactorHeight = parentHeight / height;
+        var scaleFactorWidth = parentWidth / width;
 
         //Work out whether to scale by width or height
         if (scaleFactorHeight > scaleFactorWidth) {
@@ -73,22 +168,9 @@ public class GamePane extends StackPane {
             setScalar(scaleFactorHeight);
         }
 
-        //Set up the scale
-        Scale scale = new Scale(scalar,scalar);
-
-        //Get the parent width and height
-        var parentWidth = getWidth();
-        var parentHeight = getHeight();
-
         //Get the padding needed on the top and left
-        var paddingLeft = (parentWidth - (width * scalar)) / 2.0;
-        var paddingTop = (parentHeight - (height * scalar)) / 2.0;
-
-        //Perform the transformation
-        Translate translate = new Translate(paddingLeft, paddingTop);
-        scale.setPivotX(0);
-        scale.setPivotY(0);
-        getTransforms().setAll(translate, scale);
+        translate.setX((parentWidth - (width * scalar)) / 2.0);
+        translate.setY((parentHeight - (height * scalar)) / 2.0);
     }
 
 }
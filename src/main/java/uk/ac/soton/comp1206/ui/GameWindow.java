@@ -9,6 +9,7 @@ import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.ac.soton.comp1206.App;
+import uk.ac.soton.comp1206.Media.Multimedia;
 import uk.ac.soton.comp1206.game.Game;
 import uk.ac.soton.comp1206.network.Communicator;
 import uk.ac.soton.comp1206.scene.*;
@@ -32,6 +33,11 @@ public class GameWindow {
     private BaseScene currentScene;
     private Scene scene;
 
+    /**
+     * Keeps and preloads scenes so switching does not have to build them
+     */
+    private final SceneManager scenes = new SceneManager(this);
+
     final Communicator communicator;
 
     /**
@@ -72,20 +78,33 @@ public class GameWindow {
         Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Regular.ttf"),32);
         Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-Bold.ttf"),32);
         Font.loadFont(getClass().getResourceAsStream("/style/Orbitron-ExtraBold.ttf"),32);
+
+        //Start decoding the images in the background
+        ResourceCache.preload("/images/TetrECS.png", "/images/Instructions.png");
+
+        //Decode the sound effects now rather than when they are first played
+        Multimedia.loadClips();
     }
 
     /**
      * Display the main menu
      */
     public void startMenu() {
-        loadScene(new MenuScene(this));
+        loadScene(scenes.reuse(MenuScene.class, () -> new MenuScene(this)));
     }
 
     /**
      * Display the single player challenge
      */
     public void startChallenge() {
-        loadScene(new ChallengeScene(this));
+        loadScene(scenes.challenge());
+    }
+
+    /**
+     * Display the single player challenge on the endurance board, which is too large to draw in full
+     */
+    public void startEndurance() {
+        loadScene(new ChallengeScene(this, ChallengeScene.ENDURANCE_SIZE, ChallengeScene.ENDURANCE_SIZE));
     }
 
     /**
@@ -99,21 +118,33 @@ public class GameWindow {
     }
 
     /**
-     * Load a given scene which extends BaseScene and switch over.
+     * Load a given scene which extends BaseScene and switch over. A scene which has been built already, in advance or
+     * because it is being reused, is shown as it is.
      * @param newScene new scene to load
      */
     public void loadScene(BaseScene newScene) {
         //Cleanup remains of the previous scene
         cleanup();
 
-        //Create the new scene and set it up
-        newScene.build();
+        //Create the new scene and set it up, unless it is ready
+        scenes.prepare(newScene);
+
+        //Crossfade to the music of the new scene, and load the music likely to follow it
+        if(newScene.getMusic() != null) {
+            Multimedia.playMusic(newScene.getMusic());
+        }
+        if(newScene.getNextMusic() != null) {
+            Multimedia.preloadMusic(newScene.getNextMusic());
+        }
         currentScene = newScene;
-        scene = newScene.setScene();
+        scene = newScene.getScene();
         stage.setScene(scene);
 
-        //Initialise the scene when ready
-        Platform.runLater(() -> currentScene.initialise());
+        //Initialise the scene when ready, then get the next scenes ready
+        Platform.runLater(() -> {
+            currentScene.initialise();
+            scenes.shown(currentScene);
+        });
     }
 
     /**
@@ -130,6 +161,9 @@ public class GameWindow {
     public void cleanup() {
         logger.info("Clearing up previous scene");
         communicator.clearListeners();
+        if(currentScene != null) {
+            currentScene.hide();
+        }
     }
 
     /**
@@ -140,6 +174,14 @@ public class GameWindow {
         return scene;
     }
 
+    /**
+     * Get the scene being displayed
+     * @return the current scene
+     */
+    public BaseScene getCurrentScene() {
+        return currentScene;
+    }
+
     /**
      * Get the width of the Game Window
      * @return width
@@ -165,7 +207,7 @@ public class GameWindow {
     }
 
     public void startInstructions() {
-        loadScene(new InstructionsScene(this));
+        loadScene(scenes.reuse(InstructionsScene.class, () -> new InstructionsScene(this)));
     }
 
     public void startScoresScene(Game game) {
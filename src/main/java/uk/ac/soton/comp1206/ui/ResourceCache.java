@@ -0,0 +1,59 @@
+package uk.ac.soton.comp1206.ui;
+
+import javafx.scene.image.Image;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ResourceCache holds the images and stylesheet shared by every scene, so each is only loaded once however many
+ * times a scene is built.
+ *
+ * Images are decoded by the JavaFX background loader, so preloading them at startup does not hold up the window.
+ */
+public class ResourceCache {
+
+    private static final Logger logger = LogManager.getLogger(ResourceCache.class);
+
+    /**
+     * The stylesheet of every scene
+     */
+    private static final String STYLESHEET = ResourceCache.class.getResource("/style/game.css").toExternalForm();
+
+    /**
+     * The images loaded so far, by resource path
+     */
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+
+    /**
+     * Get the stylesheet every scene uses
+     * @return the stylesheet URL
+     */
+    public static String getStylesheet() {
+        return STYLESHEET;
+    }
+
+    /**
+     * Get an image, loading it in the background the first time it is asked for
+     * @param path the resource path of the image, such as /images/TetrECS.png
+     * @return the image, which may still be loading
+     */
+    public static Image getImage(String path) {
+        return images.computeIfAbsent(path, (key) -> {
+            logger.debug("Loading image {}", key);
+            return new Image(ResourceCache.class.getResource(key).toExternalForm(), true);
+        });
+    }
+
+    /**
+     * Start loading images in the background before they are needed
+     * @param paths the resource paths of the images
+     */
+    public static void preload(String... paths) {
+        for(String path : paths) {
+            getImage(path);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package uk.ac.soton.comp1206.ui;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.ac.soton.comp1206.scene.BaseScene;
+import uk.ac.soton.comp1206.scene.ChallengeScene;
+import uk.ac.soton.comp1206.scene.InstructionsScene;
+import uk.ac.soton.comp1206.scene.MenuScene;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The SceneManager decides which scenes the GameWindow can show without building them at the moment of switching.
+ *
+ * Scenes with no state of their own, such as the menu and the instructions, are built once and kept. After a scene has
+ * been shown, the scene most likely to come next is built in advance: from the menu, the challenge and the
+ * instructions. Building happens on the JavaFX thread once the new scene has had time to draw, as boards render their
+ * block sprites with canvas snapshots, which can only be taken on that thread. Images are loaded in the background by
+ * the {@link ResourceCache}.
+ */
+public class SceneManager {
+
+    private static final Logger logger = LogManager.getLogger(SceneManager.class);
+
+    /**
+     * How long after a scene is shown to build the next one
+     */
+    private static final Duration PRELOAD_DELAY = Duration.millis(250);
+
+    /**
+     * The window the scenes are shown in
+     */
+    private final GameWindow gameWindow;
+
+    /**
+     * The scenes kept for reuse, by class
+     */
+    private final Map<Class<? extends BaseScene>, BaseScene> reusable = new HashMap<>();
+
+    /**
+     * A challenge built in advance and not yet shown, or null
+     */
+    private ChallengeScene preloadedChallenge;
+
+    /**
+     * Create a scene manager for a window
+     * @param gameWindow the window
+     */
+    public SceneManager(GameWindow gameWindow) {
+        this.gameWindow = gameWindow;
+    }
+
+    /**
+     * Get a scene which is kept for reuse, creating it the first time
+     * @param type the class of the scene
+     * @param factory creates the scene
+     * @param <T> the class of the scene
+     * @return the scene
+     */
+    public <T extends BaseScene> T reuse(Class<T> type, Supplier<T> factory) {
+        return type.cast(reusable.computeIfAbsent(type, (key) -> factory.get()));
+    }
+
+    /**
+     * Get a new challenge, using the one built in advance if there is one
+     * @return the challenge scene
+     */
+    public ChallengeScene challenge() {
+        var challenge = preloadedChallenge;
+        preloadedChallenge = null;
+        return challenge != null ? challenge : new ChallengeScene(gameWindow);
+    }
+
+    /**
+     * Build a scene if it has not been built already
+     * @param scene the scene
+     */
+    public void prepare(BaseScene scene) {
+        if(scene.getScene() == null) {
+            scene.build();
+            scene.setScene();
+        }
+    }
+
+    /**
+     * Build the scenes likely to follow one which has just been shown, once it has had time to draw
+     * @param scene the scene shown
+     */
+    public void shown(BaseScene scene) {
+        if(!(scene instanceof MenuScene)) return;
+        var delay = new PauseTransition(PRELOAD_DELAY);
+        delay.setOnFinished((e) -> {
+            //Nothing to do if the player has already moved on
+            if(gameWindow.getCurrentScene() == scene) {
+                preloadFromMenu();
+            }
+        });
+        delay.play();
+    }
+
+    /**
+     * Build the challenge and the instructions in advance, unless they are ready already
+     */
+    private void preloadFromMenu() {
+        long start = System.nanoTime();
+        if(preloadedChallenge == null) {
+            preloadedChallenge = new ChallengeScene(gameWindow);
+            prepare(preloadedChallenge);
+        }
+        prepare(reuse(InstructionsScene.class, () -> new InstructionsScene(gameWindow)));
+        logger.info("Preloaded scenes in {}ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}